@@ -0,0 +1,120 @@
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bounded LRU cache of analysis results, so re-running an analysis nothing has changed for does no scoring.
+// Results are valid for one (userId, profile version, catalog version): a changed skill or field gives the profile
+// a new version and a reload gives a new catalog, so a stale result is never served. Each user keeps one entry,
+// replaced on their next analysis after a change; entries of a replaced catalog are dropped by retainCatalog.
+// Thread-safe; scoring runs outside the lock, so two threads may occasionally compute the same result.
+public class AnalysisCache {
+
+    // Results for one profile version against one catalog
+    private static class Entry {
+        final long profileVersion;
+        final long catalogVersion;
+        final Map<String, AnalysisResult> byPath = new ConcurrentHashMap<>();
+        // Best matches, as many as were asked for last; replaced as a whole so the list and its k always agree
+        volatile Ranking ranking;
+
+        Entry(long profileVersion, long catalogVersion) {
+            this.profileVersion = profileVersion;
+            this.catalogVersion = catalogVersion;
+        }
+    }
+
+    // The k best matches of one recommend call
+    private static class Ranking {
+        final int k;
+        final List<AnalysisResult> results;
+
+        Ranking(int k, List<AnalysisResult> results) {
+            this.k = k;
+            this.results = results;
+        }
+    }
+
+    // Process-wide, shared by every cache
+    private static final Metrics.Counter HITS = Metrics.counter("analysis.cacheHits");
+    private static final Metrics.Counter MISSES = Metrics.counter("analysis.cacheMisses");
+
+    private final Map<String, Entry> entries;
+
+    public AnalysisCache(int capacity) {
+        // Access-ordered map that drops its least recently used user once it grows past the capacity
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // Same as SkillAnalysisEngine.analyze; path must come from catalog
+    public AnalysisResult analyze(UserProfile user, CareerCatalog catalog, CareerPath path) {
+        // Score the very state the version belongs to, even if the profile changes meanwhile
+        UserProfile snapshot = user.copy();
+        Entry entry = entry(snapshot, catalog);
+        AnalysisResult result = entry.byPath.get(path.getName());
+        if (result != null) {
+            HITS.increment();
+            return result;
+        }
+        MISSES.increment();
+        result = SkillAnalysisEngine.analyze(snapshot, path);
+        entry.byPath.put(path.getName(), result);
+        return result;
+    }
+
+    // Same as SkillAnalysisEngine.recommend
+    public List<AnalysisResult> recommend(UserProfile user, CareerCatalog catalog, int k) {
+        UserProfile snapshot = user.copy();
+        Entry entry = entry(snapshot, catalog);
+        Ranking ranking = entry.ranking;
+        if (ranking != null && ranking.k == k) {
+            HITS.increment();
+            return ranking.results;
+        }
+        MISSES.increment();
+        List<AnalysisResult> results = SkillAnalysisEngine.recommend(snapshot, catalog, k);
+        entry.ranking = new Ranking(k, results);
+        return results;
+    }
+
+    // Drops the results scored against any other catalog, e.g. after a reload published this one
+    public synchronized void retainCatalog(CareerCatalog catalog) {
+        entries.values().removeIf(entry -> entry.catalogVersion != catalog.getVersion());
+    }
+
+    public synchronized void invalidate(String userId) {
+        entries.remove(userId);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Process-wide totals
+    public long getHitCount() {
+        return HITS.getValue();
+    }
+
+    public long getMissCount() {
+        return MISSES.getValue();
+    }
+
+    // The user's entry for this profile version and catalog, replacing one for older versions
+    private synchronized Entry entry(UserProfile snapshot, CareerCatalog catalog) {
+        Entry entry = entries.get(snapshot.getUserId());
+        if (entry == null || entry.profileVersion != snapshot.getVersion() || entry.catalogVersion != catalog.getVersion()) {
+            entry = new Entry(snapshot.getVersion(), catalog.getVersion());
+            entries.put(snapshot.getUserId(), entry);
+        }
+        return entry;
+    }
+}
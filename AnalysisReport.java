@@ -0,0 +1,56 @@
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+// Builds the text of the analysis report shown on the Analyze page. Kept free of Swing so the report
+// (and everything it scores) can be produced headless, e.g. by benchmarks and batch tools.
+// The formatting itself lives in ReportWriter; these methods render a single report into a String.
+public class AnalysisReport {
+
+    public static String render(UserProfile user, CareerCatalog catalog, CareerPath path, int topPaths) {
+        return render(SkillAnalysisEngine.analyze(user, path), SkillAnalysisEngine.recommend(user, catalog, topPaths));
+    }
+
+    // The report for results already scored, e.g. taken from an AnalysisCache
+    public static String render(AnalysisResult result, List<AnalysisResult> ranking) {
+        return render(ReportWriter.Format.TEXT, result, ranking);
+    }
+
+    // The same report as a JSON object, for the HTTP service
+    public static String renderJson(UserProfile user, CareerCatalog catalog, CareerPath path, int topPaths) {
+        return renderJson(SkillAnalysisEngine.analyze(user, path), SkillAnalysisEngine.recommend(user, catalog, topPaths));
+    }
+
+    public static String renderJson(AnalysisResult result, List<AnalysisResult> ranking) {
+        return render(ReportWriter.Format.JSON, result, ranking).trim();
+    }
+
+    // One report in memory; to write many, use a ReportWriter on the target stream directly
+    public static String render(ReportWriter.Format format, AnalysisResult result, List<AnalysisResult> ranking) {
+        StringWriter text = new StringWriter(1024);
+        try {
+            new ReportWriter(text, format).writeReport(result, ranking);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // A StringWriter never throws
+        }
+        return text.toString();
+    }
+
+    static String status(AnalysisResult.SkillMatch match) {
+        return match.isMet() ? "Met" : "Major Gap";
+    }
+
+    // Roadmap advice for one skill
+    static String advice(AnalysisResult.SkillMatch match) {
+        boolean technical = match.getType().equals("Technical");
+        if (!match.isMet()) {
+            return technical
+                    ? "Start here: Begin with foundational courses to build a solid understanding."
+                    : "Practice and apply these skills in team projects or leadership roles.";
+        }
+        return technical
+                ? "Great job! Focus on advanced application and mentoring."
+                : "Maintain and leverage this skill in professional settings.";
+    }
+}
@@ -0,0 +1,82 @@
+import java.util.Collections;
+import java.util.List;
+
+// Encapsulation: Immutable outcome of scoring one user against one career path.
+public class AnalysisResult {
+
+    private final String userId;
+    private final String careerPath;
+    private final int matchScore; // 0-100
+    private final List<SkillMatch> skillMatches;
+
+    public AnalysisResult(String userId, String careerPath, int matchScore, List<SkillMatch> skillMatches) {
+        this.userId = userId;
+        this.careerPath = careerPath;
+        this.matchScore = matchScore;
+        this.skillMatches = Collections.unmodifiableList(skillMatches);
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getCareerPath() {
+        return careerPath;
+    }
+
+    public int getMatchScore() {
+        return matchScore;
+    }
+
+    public List<SkillMatch> getSkillMatches() {
+        return skillMatches;
+    }
+
+    @Override
+    public String toString() {
+        return userId + " -> " + careerPath + ": " + matchScore + "%";
+    }
+
+    // One required skill of the path and how the user's proficiency compares to it
+    public static class SkillMatch {
+        private final String name;
+        private final String type; // Technical or Soft
+        private final int proficiency; // 0 when the user does not have the skill
+        private final int minProficiency;
+        private final int weight;
+        private final boolean met;
+
+        public SkillMatch(String name, String type, int proficiency, int minProficiency, int weight, boolean met) {
+            this.name = name;
+            this.type = type;
+            this.proficiency = proficiency;
+            this.minProficiency = minProficiency;
+            this.weight = weight;
+            this.met = met;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getProficiency() {
+            return proficiency;
+        }
+
+        public int getMinProficiency() {
+            return minProficiency;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public boolean isMet() {
+            return met;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Per-skill posting lists of (userId, proficiency) for finding the best candidates for a career path without
+// scoring every registered user. Each posting list is bucketed by proficiency (1-10), so walking it from the
+// top bucket down reads users in descending proficiency order, and updates are constant time.
+public class CandidateIndex implements UserAggregate {
+
+    // A candidate's rank value is (met weight * WEIGHT_SCALE + proficiency on met skills): the match score decides
+    // first, the actual proficiency on the required skills breaks ties
+    private static final long WEIGHT_SCALE = 1 << 20;
+    private static final int MAX_PROFICIENCY = 10;
+
+    // Encapsulation: Immutable query result
+    public static class Candidate {
+        private final String userId;
+        private final int matchScore;
+        private final long rank;
+
+        Candidate(String userId, int matchScore, long rank) {
+            this.userId = userId;
+            this.matchScore = matchScore;
+            this.rank = rank;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public int getMatchScore() {
+            return matchScore;
+        }
+
+        @Override
+        public String toString() {
+            return userId + ": " + matchScore + "%";
+        }
+    }
+
+    // Users holding one skill, by proficiency
+    private static class Posting {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final Set<String>[] byProficiency = new Set[MAX_PROFICIENCY + 1];
+
+        void add(String userId, int proficiency) {
+            if (byProficiency[proficiency] == null) {
+                byProficiency[proficiency] = new HashSet<>();
+            }
+            byProficiency[proficiency].add(userId);
+        }
+
+        void remove(String userId, int proficiency) {
+            Set<String> bucket = byProficiency[proficiency];
+            if (bucket != null) {
+                bucket.remove(userId);
+            }
+        }
+    }
+
+    private final Map<Integer, Posting> postings = new HashMap<>();
+    // Random access side: userId -> (skill key -> proficiency)
+    private final Map<String, SkillKeyIndex> userSkills = new HashMap<>();
+
+    // Indexes every skill of the profile, replacing whatever was indexed for that user before
+    @Override
+    public synchronized void addUser(UserProfile user) {
+        removeUser(user.getUserId());
+        UserProfile snapshot = user.copy();
+        // Indexed even without skills, so addUserIfAbsent knows the user has been seen
+        userSkills.put(user.getUserId(), new SkillKeyIndex());
+        for (int s = 0; s < snapshot.getSkillCount(); s++) {
+            addSkill(user.getUserId(), snapshot.getSkillKey(s), snapshot.getSkillProficiency(s));
+        }
+    }
+
+    @Override
+    public synchronized void addUserIfAbsent(UserProfile user) {
+        if (!userSkills.containsKey(user.getUserId())) {
+            addUser(user);
+        }
+    }
+
+    @Override
+    public synchronized void removeUser(String userId) {
+        SkillKeyIndex skills = userSkills.remove(userId);
+        if (skills == null) {
+            return;
+        }
+        for (int key : skills.keys()) {
+            postings.get(key).remove(userId, skills.get(key));
+        }
+    }
+
+    // Same splitting and aliases as UserProfile.addSkill
+    @Override
+    public synchronized void addSkill(String userId, String name, String type, int proficiency) {
+        for (int key : SkillDictionary.keys(name, type)) {
+            addSkill(userId, key, proficiency);
+        }
+    }
+
+    private void addSkill(String userId, int key, int proficiency) {
+        proficiency = clamp(proficiency);
+        SkillKeyIndex skills = userSkills.get(userId);
+        // A skill the user already has keeps its proficiency, as in the profile
+        if (skills == null || skills.get(key) >= 0) {
+            return;
+        }
+        skills.put(key, proficiency);
+        postings.computeIfAbsent(key, k -> new Posting()).add(userId, proficiency);
+    }
+
+    @Override
+    public synchronized void removeSkill(String userId, String name, String type) {
+        SkillKeyIndex skills = userSkills.get(userId);
+        if (skills == null) {
+            return;
+        }
+        for (int key : SkillDictionary.lookupKeys(name, type)) {
+            int proficiency = skills.remove(key);
+            if (proficiency >= 0) {
+                postings.get(key).remove(userId, proficiency);
+            }
+        }
+    }
+
+    public synchronized int getUserCount() {
+        return userSkills.size();
+    }
+
+    // The k users who match the path best, highest score first. Threshold algorithm: the posting lists of the
+    // required skills are read round-robin in descending proficiency, each newly seen user is scored exactly by
+    // random access, and reading stops once the k-th best found outranks anything an unseen user could still reach.
+    public synchronized List<Candidate> topCandidates(CareerPath path, int k) {
+        int lists = path.getSkillCount();
+        Cursor[] cursors = new Cursor[lists];
+        for (int i = 0; i < lists; i++) {
+            cursors[i] = new Cursor(postings.get(path.getSkillKey(i)), path.getMinProficiency(i));
+        }
+
+        Comparator<Candidate> worstFirst = Comparator.<Candidate>comparingLong(c -> c.rank)
+                .thenComparing(c -> c.userId, Comparator.reverseOrder());
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Math.max(1, k), worstFirst);
+        Set<String> seen = new HashSet<>();
+
+        boolean remaining = k > 0;
+        while (remaining) {
+            remaining = false;
+            for (int i = 0; i < lists; i++) {
+                String userId = cursors[i].next();
+                if (userId == null) {
+                    continue;
+                }
+                remaining = true;
+                if (!seen.add(userId)) {
+                    continue;
+                }
+                Candidate candidate = score(path, userId);
+                if (best.size() < k) {
+                    best.add(candidate);
+                } else if (worstFirst.compare(candidate, best.peek()) > 0) {
+                    best.poll();
+                    best.add(candidate);
+                }
+            }
+
+            // Best rank an unseen user could have: the current proficiency level of every unfinished list
+            long threshold = 0;
+            for (int i = 0; i < lists; i++) {
+                int level = cursors[i].level();
+                if (level > 0) {
+                    threshold += path.getWeight(i) * WEIGHT_SCALE + level;
+                }
+            }
+            if (best.size() == k && best.peek().rank >= threshold) {
+                break;
+            }
+        }
+
+        Candidate[] ranked = new Candidate[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = best.poll();
+        }
+        return Arrays.asList(ranked);
+    }
+
+    private Candidate score(CareerPath path, String userId) {
+        SkillKeyIndex skills = userSkills.get(userId);
+        long metWeight = 0;
+        long proficiencySum = 0;
+        for (int i = 0; i < path.getSkillCount(); i++) {
+            int proficiency = skills.get(path.getSkillKey(i));
+            if (proficiency >= path.getMinProficiency(i)) {
+                metWeight += path.getWeight(i);
+                proficiencySum += proficiency;
+            }
+        }
+        int matchScore = (int) (metWeight * 100 / path.getTotalWeight());
+        return new Candidate(userId, matchScore, metWeight * WEIGHT_SCALE + proficiencySum);
+    }
+
+    // Sorted access over one posting list, limited to users at or above the required proficiency
+    private static class Cursor {
+        private final Posting posting;
+        private final int minProficiency;
+        private int level = MAX_PROFICIENCY + 1;
+        private Iterator<String> bucket;
+
+        Cursor(Posting posting, int minProficiency) {
+            this.posting = posting;
+            this.minProficiency = minProficiency;
+            if (posting == null) {
+                level = 0;
+            } else {
+                advanceBucket();
+            }
+        }
+
+        // Proficiency of the next user this cursor returns, 0 once exhausted
+        int level() {
+            return level;
+        }
+
+        String next() {
+            if (level == 0) {
+                return null;
+            }
+            String userId = bucket.next();
+            if (!bucket.hasNext()) {
+                advanceBucket();
+            }
+            return userId;
+        }
+
+        private void advanceBucket() {
+            for (level--; level >= minProficiency && level > 0; level--) {
+                Set<String> users = posting.byProficiency[level];
+                if (users != null && !users.isEmpty()) {
+                    bucket = users.iterator();
+                    return;
+                }
+            }
+            level = 0;
+        }
+    }
+
+    private static int clamp(int proficiency) {
+        return Math.max(0, Math.min(MAX_PROFICIENCY, proficiency));
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Encapsulation: Immutable set of career paths plus an inverted index from required skill to the paths that need it,
+// so ranking paths for a user only visits paths that share at least one skill with them.
+public class CareerCatalog {
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final Map<String, CareerPath> paths;
+    // Every catalog (e.g. each reload) gets a new version, for caches of results scored against it
+    private final long version = VERSIONS.incrementAndGet();
+    private final CareerPath[] pathArray;
+
+    // Skill key -> posting number; each posting lists (path index, requirement index) pairs needing that skill
+    private final SkillKeyIndex postingIndex;
+    private final int[][] postingPaths;
+    private final int[][] postingRequirements;
+
+    public CareerCatalog(Map<String, CareerPath> paths) {
+        // Sorted so ties rank in name order
+        this.paths = Collections.unmodifiableMap(new TreeMap<>(paths));
+        this.pathArray = this.paths.values().toArray(new CareerPath[0]);
+
+        postingIndex = new SkillKeyIndex();
+        List<int[]> pathLists = new ArrayList<>();
+        List<int[]> requirementLists = new ArrayList<>();
+        int[] sizes = new int[16];
+        for (int p = 0; p < pathArray.length; p++) {
+            CareerPath path = pathArray[p];
+            for (int r = 0; r < path.getSkillCount(); r++) {
+                int key = path.getSkillKey(r);
+                int posting = postingIndex.get(key);
+                if (posting < 0) {
+                    posting = pathLists.size();
+                    postingIndex.put(key, posting);
+                    pathLists.add(new int[2]);
+                    requirementLists.add(new int[2]);
+                    if (posting == sizes.length) {
+                        sizes = Arrays.copyOf(sizes, posting * 2);
+                    }
+                }
+                int size = sizes[posting];
+                if (size == pathLists.get(posting).length) {
+                    pathLists.set(posting, Arrays.copyOf(pathLists.get(posting), size * 2));
+                    requirementLists.set(posting, Arrays.copyOf(requirementLists.get(posting), size * 2));
+                }
+                pathLists.get(posting)[size] = p;
+                requirementLists.get(posting)[size] = r;
+                sizes[posting] = size + 1;
+            }
+        }
+
+        postingPaths = new int[pathLists.size()][];
+        postingRequirements = new int[pathLists.size()][];
+        for (int i = 0; i < postingPaths.length; i++) {
+            postingPaths[i] = Arrays.copyOf(pathLists.get(i), sizes[i]);
+            postingRequirements[i] = Arrays.copyOf(requirementLists.get(i), sizes[i]);
+        }
+    }
+
+    public Map<String, CareerPath> getPaths() {
+        return paths;
+    }
+
+    public CareerPath getPath(String name) {
+        return paths.get(name);
+    }
+
+    public int size() {
+        return pathArray.length;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Up to k paths the user matches best, highest score first; paths the user scores 0 on are left out
+    public List<CareerPath> rankPaths(UserProfile user, int k) {
+        // Accumulate met weight per touched path; only paths sharing a skill with the user are ever visited
+        int[] metWeight = new int[pathArray.length];
+        int[] touched = new int[Math.min(pathArray.length, 16)];
+        int touchedCount = 0;
+
+        UserProfile snapshot = user.copy();
+        for (int s = 0; s < snapshot.getSkillCount(); s++) {
+            int posting = postingIndex.get(snapshot.getSkillKey(s));
+            if (posting < 0) {
+                continue;
+            }
+            int proficiency = snapshot.getSkillProficiency(s);
+            int[] pathList = postingPaths[posting];
+            int[] requirementList = postingRequirements[posting];
+            for (int i = 0; i < pathList.length; i++) {
+                CareerPath path = pathArray[pathList[i]];
+                int requirement = requirementList[i];
+                if (proficiency < path.getMinProficiency(requirement)) {
+                    continue;
+                }
+                if (metWeight[pathList[i]] == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = pathList[i];
+                }
+                metWeight[pathList[i]] += path.getWeight(requirement);
+            }
+        }
+
+        // Min-heap of the best k so far: lowest score (then latest name) on top
+        Comparator<int[]> worstFirst = Comparator.<int[]>comparingInt(entry -> entry[1])
+                .thenComparing(entry -> entry[0], Comparator.reverseOrder());
+        PriorityQueue<int[]> best = new PriorityQueue<>(Math.max(1, k), worstFirst);
+        for (int i = 0; i < touchedCount; i++) {
+            int p = touched[i];
+            int[] entry = {p, metWeight[p] * 100 / pathArray[p].getTotalWeight()};
+            if (best.size() < k) {
+                best.add(entry);
+            } else if (k > 0 && worstFirst.compare(entry, best.peek()) > 0) {
+                best.poll();
+                best.add(entry);
+            }
+        }
+
+        CareerPath[] ranked = new CareerPath[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = pathArray[best.poll()[0]];
+        }
+        return Arrays.asList(ranked);
+    }
+}
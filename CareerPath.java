@@ -0,0 +1,112 @@
+import java.util.Collections;
+import java.util.List;
+
+// Encapsulation: Immutable career path compiled for scoring. Required skills are held as parallel primitive arrays
+// of SkillDictionary keys, weights and minimum proficiencies, so scoring a profile is a loop over ints.
+public class CareerPath {
+
+    // One required skill as written in the catalog
+    public static class Requirement {
+        private final String name;
+        private final String type; // Technical or Soft
+        private final int weight;
+        private final int minProficiency;
+
+        public Requirement(String name, String type, int weight, int minProficiency) {
+            this.name = name;
+            this.type = type;
+            this.weight = weight;
+            this.minProficiency = minProficiency;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public int getMinProficiency() {
+            return minProficiency;
+        }
+    }
+
+    private final String name;
+    private final List<Requirement> requirements;
+    private final int[] skillKeys;
+    private final int[] weights;
+    private final int[] minProficiencies;
+    private final int totalWeight;
+
+    public CareerPath(String name, List<Requirement> requirements) {
+        if (requirements.isEmpty()) {
+            throw new IllegalArgumentException("Career path " + name + " has no required skills");
+        }
+        this.name = name;
+        this.requirements = Collections.unmodifiableList(requirements);
+
+        int count = requirements.size();
+        skillKeys = new int[count];
+        weights = new int[count];
+        minProficiencies = new int[count];
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            Requirement requirement = requirements.get(i);
+            skillKeys[i] = SkillDictionary.key(requirement.getName(), requirement.getType());
+            weights[i] = requirement.getWeight();
+            minProficiencies[i] = requirement.getMinProficiency();
+            total += requirement.getWeight();
+        }
+        totalWeight = total;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Requirement> getRequirements() {
+        return requirements;
+    }
+
+    public int getSkillCount() {
+        return skillKeys.length;
+    }
+
+    // Skill key of the i-th requirement (see SkillDictionary)
+    public int getSkillKey(int i) {
+        return skillKeys[i];
+    }
+
+    public int getWeight(int i) {
+        return weights[i];
+    }
+
+    public int getMinProficiency(int i) {
+        return minProficiencies[i];
+    }
+
+    public int getTotalWeight() {
+        return totalWeight;
+    }
+
+    // Weighted percentage (0-100) of required skills the user meets; allocation free
+    public int score(UserProfile user) {
+        int metWeight = 0;
+        for (int i = 0; i < skillKeys.length; i++) {
+            if (user.getProficiency(skillKeys[i]) >= minProficiencies[i]) {
+                metWeight += weights[i];
+            }
+        }
+        return metWeight * 100 / totalWeight;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -1,52 +1,155 @@
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class CareerPathLoader {
 
     // Define the file name as a constant
-    private static final String CAREER_PATH_FILE = "career_paths.txt";
+    public static final String CAREER_PATH_FILE = "career_paths.txt";
 
-    public static Map<String, String[]> loadCareerPaths() {
-        Map<String, String[]> paths = new HashMap<>();
+    // Defaults for skills that do not state a weight or minimum proficiency
+    public static final int DEFAULT_WEIGHT = 1;
+    public static final int DEFAULT_MIN_PROFICIENCY = 7;
 
-        try (BufferedReader br = new BufferedReader(new FileReader(CAREER_PATH_FILE))) {
+    // Initial loads and reloads alike
+    private static final Metrics.Latency LOAD_TIME = Metrics.latency("catalog.load");
+
+    // Line format: "Path A/Path B: name|Type|weight|minProficiency; name|Type; ..." (weight and minimum optional).
+    // Legacy lines with exactly two bare names ("Tech;Soft") are still read as one Technical and one Soft skill.
+    // Skill names are resolved through SkillDictionary once here, so scoring only compares canonical IDs.
+    public static Map<String, CareerPath> loadCareerPaths() {
+        try {
+            return readCareerPaths(Paths.get(CAREER_PATH_FILE), false);
+        } catch (IOException e) {
+            // Error handling if the file is not found or cannot be read
+            System.err.println("Error reading " + CAREER_PATH_FILE + ". Please ensure the file is in the project root directory.");
+            return new HashMap<>();
+        }
+    }
+
+    // Reads the catalog from file. Lenient mode skips (and reports) bad lines; strict mode rejects the whole
+    // file instead, for reloads where a half-written file must not replace a good catalog.
+    public static Map<String, CareerPath> readCareerPaths(Path file, boolean strict) throws IOException {
+        long start = System.nanoTime();
+        Map<String, CareerPath> paths = new HashMap<>();
+
+        try (BufferedReader br = Files.newBufferedReader(file)) {
             String line;
+            int lineNumber = 0;
             while ((line = br.readLine()) != null) {
-                // Skip empty lines
-                if (line.trim().isEmpty()) {
+                lineNumber++;
+                // Skip empty lines and comments
+                if (line.trim().isEmpty() || line.trim().startsWith("#")) {
                     continue;
                 }
 
                 String[] parts = line.split(":");
-                if (parts.length == 2) {
-                    String pathNameCombined = parts[0].trim();
-                    String[] requiredSkills = parts[1].split(";");
-
-                    // Ensure both technical and soft skills are present
-                    if (requiredSkills.length == 2) {
-
-                        // Split the combined path name by '/'
-                        String[] pathNames = pathNameCombined.split("/");
+                List<CareerPath.Requirement> requirements;
+                try {
+                    if (parts.length != 2) {
+                        throw new IllegalArgumentException("expected 'paths: skills'");
+                    }
+                    requirements = parseRequirements(parts[1].split(";"));
+                } catch (IllegalArgumentException e) {
+                    String message = "line " + lineNumber + " of " + file.getFileName() + ": " + e.getMessage();
+                    if (strict) {
+                        throw new IOException("Invalid " + message);
+                    }
+                    System.err.println("Skipping " + message);
+                    continue;
+                }
 
-                        for (String pathName : pathNames) {
-                            String individualPath = pathName.trim();
+                // Split the combined path name by '/'
+                for (String pathName : parts[0].trim().split("/")) {
+                    String individualPath = pathName.trim();
 
-                            // Ensure the path name is not empty
-                            if (!individualPath.isEmpty()) {
-                                // Put the individual path name into the map (for the drop-down)
-                                paths.put(individualPath, requiredSkills); // [0]=Tech, [1]=Soft
-                            }
-                        }
+                    // Ensure the path name is not empty
+                    if (!individualPath.isEmpty()) {
+                        // Put the individual path name into the map (for the drop-down)
+                        paths.put(individualPath, new CareerPath(individualPath, requirements));
                     }
                 }
             }
-        } catch (IOException e) {
-            // Error handling if the file is not found or cannot be read
-            System.err.println("Error reading " + CAREER_PATH_FILE + ". Please ensure the file is in the project root directory.");
         }
+        LOAD_TIME.recordSince(start);
         return paths;
     }
-}
\ No newline at end of file
+
+    // Loads the paths and builds the skill -> paths index used for recommendations
+    public static CareerCatalog loadCatalog() {
+        return new CareerCatalog(loadCareerPaths());
+    }
+
+    private static List<CareerPath.Requirement> parseRequirements(String[] entries) {
+        List<CareerPath.Requirement> requirements = new ArrayList<>(entries.length);
+        boolean legacy = entries.length == 2 && entries[0].indexOf('|') < 0 && entries[1].indexOf('|') < 0;
+        if (legacy) {
+            // [0]=Tech, [1]=Soft
+            addRequirements(requirements, entries[0], "Technical", DEFAULT_WEIGHT, DEFAULT_MIN_PROFICIENCY);
+            addRequirements(requirements, entries[1], "Soft", DEFAULT_WEIGHT, DEFAULT_MIN_PROFICIENCY);
+            return requirements;
+        }
+
+        for (String entry : entries) {
+            String[] fields = entry.split("\\|");
+            if (fields.length < 2 || fields.length > 4) {
+                throw new IllegalArgumentException("expected 'name|Type[|weight[|minProficiency]]' but found '" + entry.trim() + "'");
+            }
+            String type = fields[1].trim();
+            if (!type.equals("Technical") && !type.equals("Soft")) {
+                throw new IllegalArgumentException("unknown skill type '" + type + "'");
+            }
+            int weight = fields.length > 2 ? parseNumber(fields[2], "weight") : DEFAULT_WEIGHT;
+            int minProficiency = fields.length > 3 ? parseNumber(fields[3], "minimum proficiency") : DEFAULT_MIN_PROFICIENCY;
+            if (weight < 1) {
+                throw new IllegalArgumentException("weight must be at least 1 for " + fields[0].trim());
+            }
+            if (minProficiency < 1 || minProficiency > 10) {
+                throw new IllegalArgumentException("minimum proficiency must be 1-10 for " + fields[0].trim());
+            }
+            addRequirements(requirements, fields[0], type, weight, minProficiency);
+        }
+        return requirements;
+    }
+
+    // Canonical skill names, once each: a composite entry ("Java/HTML/CSS") requires every skill it names,
+    // aliases resolve to their canonical skill, and a skill repeated in one path keeps its first entry
+    private static void addRequirements(List<CareerPath.Requirement> requirements, String entry, String type,
+                                        int weight, int minProficiency) {
+        String[] names = SkillDictionary.names(requireName(entry));
+        if (names.length == 0) {
+            throw new IllegalArgumentException("empty skill name");
+        }
+        for (String name : names) {
+            boolean repeated = false;
+            for (CareerPath.Requirement requirement : requirements) {
+                repeated |= requirement.getType().equals(type) && SkillDictionary.lookup(requirement.getName()) == SkillDictionary.lookup(name);
+            }
+            if (!repeated) {
+                requirements.add(new CareerPath.Requirement(name, type, weight, minProficiency));
+            }
+        }
+    }
+
+    private static String requireName(String name) {
+        String trimmed = name.trim();
+        if (trimmed.isEmpty()) {
+            throw new IllegalArgumentException("empty skill name");
+        }
+        return trimmed;
+    }
+
+    private static int parseNumber(String value, String what) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid " + what + " '" + value.trim() + "'");
+        }
+    }
+}
@@ -0,0 +1,143 @@
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// File Handling: Watches the career path file and re-reads it in the background whenever it changes.
+// A valid new file is published as a new immutable CareerCatalog with one atomic swap, so readers never wait
+// for a reload and an analysis that already took current() keeps scoring against one consistent catalog.
+// A file that fails to parse (for example one still being saved) is reported and the previous catalog is kept.
+public class CatalogReloader {
+
+    // Editors often save in several steps; wait this long after the last change before re-reading
+    private static final long SETTLE_MILLIS = 200;
+    // ... but never longer than this after the first change, however often the file keeps changing
+    private static final long MAX_SETTLE_MILLIS = 2000;
+
+    // Notified on the reloader thread after a new catalog has been published
+    public interface CatalogListener {
+        void catalogChanged(CareerCatalog catalog);
+    }
+
+    private final Path file;
+    private final AtomicReference<CareerCatalog> current;
+    private final List<CatalogListener> listeners = new CopyOnWriteArrayList<>();
+    private WatchService watcher;
+    private Thread thread;
+
+    public CatalogReloader(Path file, CareerCatalog initial) {
+        this.file = file.toAbsolutePath();
+        this.current = new AtomicReference<>(initial);
+        Metrics.gauge("catalog.paths", () -> current().size());
+    }
+
+    // The catalog to use; take it once per operation so the whole operation sees the same paths
+    public CareerCatalog current() {
+        return current.get();
+    }
+
+    public void addListener(CatalogListener listener) {
+        listeners.add(listener);
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            System.err.println("Cannot watch " + file + " for changes: " + e.getMessage());
+            return;
+        }
+        thread = new Thread(this::run, "catalog-reloader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (watcher != null) {
+            try {
+                watcher.close(); // wakes the thread, which then exits
+            } catch (IOException e) {
+                System.err.println("Error closing catalog watcher: " + e.getMessage());
+            }
+            watcher = null;
+            thread = null;
+        }
+    }
+
+    // Re-reads the file now; returns false (keeping the current catalog) if it is missing or invalid
+    public boolean reload() {
+        Map<String, CareerPath> paths;
+        try {
+            paths = CareerPathLoader.readCareerPaths(file, true);
+        } catch (IOException e) {
+            System.err.println("Keeping the current career paths, cannot reload " + file.getFileName() + ": " + e.getMessage());
+            return false;
+        }
+        if (paths.isEmpty()) {
+            System.err.println("Keeping the current career paths, " + file.getFileName() + " has no career paths.");
+            return false;
+        }
+        CareerCatalog catalog = new CareerCatalog(paths);
+        current.set(catalog);
+        for (CatalogListener listener : listeners) {
+            listener.catalogChanged(catalog);
+        }
+        return true;
+    }
+
+    private void run() {
+        WatchService service = watcher;
+        try {
+            while (true) {
+                // The directory also holds the user data files, which change all the time under load
+                if (!touchesFile(service.take())) {
+                    continue;
+                }
+                // Let a multi-step save finish, folding its further changes into this reload; only changes to
+                // the file itself restart the wait
+                long now = System.nanoTime();
+                long deadline = now + TimeUnit.MILLISECONDS.toNanos(MAX_SETTLE_MILLIS);
+                long quietUntil = now + TimeUnit.MILLISECONDS.toNanos(SETTLE_MILLIS);
+                long wait;
+                while ((wait = Math.min(quietUntil, deadline) - System.nanoTime()) > 0) {
+                    WatchKey more = service.poll(wait, TimeUnit.NANOSECONDS);
+                    if (more == null) {
+                        break;
+                    }
+                    if (touchesFile(more)) {
+                        quietUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SETTLE_MILLIS);
+                    }
+                }
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    private boolean touchesFile(WatchKey key) {
+        boolean touched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || (context instanceof Path && ((Path) context).equals(file.getFileName()))) {
+                touched = true;
+            }
+        }
+        key.reset();
+        return touched;
+    }
+}
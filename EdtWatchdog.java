@@ -0,0 +1,163 @@
+import java.awt.AWTEvent;
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.swing.AbstractButton;
+
+// Opt-in watchdog for UI stalls: reports whenever the Swing event dispatch thread has not run a queued task
+// for longer than a threshold. A background thread posts a heartbeat to the EDT and waits for it; if it is late,
+// the EDT's stack is captured right then, together with the handler being dispatched (the component's name,
+// e.g. "login", or a button's text), and appended to a rolling log (edt_stalls.log, kept to a few files).
+// When the EDT catches up, the total stall time is logged and counted in Metrics (edt.stall, edt.stalls).
+// A modal dialog opened by a handler keeps pumping events, so it does not count as a stall.
+// Turn it on with -Dskillanalyzer.edtWatchdog.millis=<threshold>, see installFromProperties().
+public class EdtWatchdog extends EventQueue {
+
+    public static final String LOG_FILE = "edt_stalls.log";
+    // The log is rolled to .1, .2, ... once it grows past this size; older files beyond MAX_LOG_FILES are dropped
+    private static final long MAX_LOG_BYTES = 1 << 20;
+    private static final int MAX_LOG_FILES = 3;
+    // Frames of the EDT stack written per stall
+    private static final int MAX_FRAMES = 40;
+
+    private static final Metrics.Latency STALL_TIME = Metrics.latency("edt.stall");
+    private static final Metrics.Counter STALLS = Metrics.counter("edt.stalls");
+
+    private final long thresholdMillis;
+    private final Path log;
+    // Innermost event being dispatched, and the thread dispatching it; written on the EDT
+    private volatile AWTEvent current;
+    private volatile Thread dispatchThread;
+
+    private EdtWatchdog(long thresholdMillis, Path log) {
+        this.thresholdMillis = thresholdMillis;
+        this.log = log;
+    }
+
+    // Installs the watchdog if skillanalyzer.edtWatchdog.millis is set (log file: skillanalyzer.edtWatchdog.log)
+    public static void installFromProperties() {
+        long millis = Long.getLong("skillanalyzer.edtWatchdog.millis", 0);
+        if (millis > 0) {
+            install(millis, Paths.get(System.getProperty("skillanalyzer.edtWatchdog.log", LOG_FILE)));
+        }
+    }
+
+    public static EdtWatchdog install(long thresholdMillis, Path log) {
+        EdtWatchdog watchdog = new EdtWatchdog(thresholdMillis, log);
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(watchdog);
+        Thread thread = new Thread(watchdog::watch, "edt-watchdog");
+        thread.setDaemon(true);
+        thread.start();
+        return watchdog;
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        // Handlers may dispatch nested events (modal dialogs); restore the outer one when they return
+        AWTEvent outer = current;
+        dispatchThread = Thread.currentThread();
+        current = event;
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            current = outer;
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                CountDownLatch heartbeat = new CountDownLatch(1);
+                long sent = System.nanoTime();
+                EventQueue.invokeLater(heartbeat::countDown);
+                if (!heartbeat.await(thresholdMillis, TimeUnit.MILLISECONDS)) {
+                    // Capture what the EDT is doing right now, before it moves on
+                    Thread edt = dispatchThread;
+                    String handler = describe(current);
+                    StackTraceElement[] stack = edt == null ? new StackTraceElement[0] : edt.getStackTrace();
+                    write(reportStart(handler, stack));
+                    heartbeat.await();
+                    long stallNanos = System.nanoTime() - sent;
+                    STALL_TIME.record(stallNanos);
+                    STALLS.increment();
+                    Metrics.counter("edt.stalls." + handler.replaceAll("[^A-Za-z0-9]+", "_")).increment();
+                    write(Instant.now() + " EDT stall in " + handler + " ended after " + stallNanos / 1_000_000 + " ms" + System.lineSeparator());
+                }
+                Thread.sleep(thresholdMillis / 2);
+            }
+        } catch (InterruptedException e) {
+            // Stopped
+        }
+    }
+
+    private String reportStart(String handler, StackTraceElement[] stack) {
+        StringBuilder report = new StringBuilder();
+        report.append(Instant.now()).append(" EDT blocked for more than ").append(thresholdMillis)
+                .append(" ms in ").append(handler).append(System.lineSeparator());
+        for (int i = 0; i < stack.length && i < MAX_FRAMES; i++) {
+            report.append("\tat ").append(stack[i]).append(System.lineSeparator());
+        }
+        if (stack.length > MAX_FRAMES) {
+            report.append("\t... ").append(stack.length - MAX_FRAMES).append(" more").append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    // The handler behind an event: the component's name if it has one, else a button's text, else its type
+    private static String describe(AWTEvent event) {
+        if (event == null) {
+            return "unknown";
+        }
+        if (event.getSource() instanceof Component) {
+            Component component = (Component) event.getSource();
+            if (component.getName() != null) {
+                return component.getName();
+            }
+            if (component instanceof AbstractButton && ((AbstractButton) component).getText() != null) {
+                return ((AbstractButton) component).getText();
+            }
+            return event.getClass().getSimpleName() + " on " + component.getClass().getSimpleName();
+        }
+        return event.getClass().getSimpleName();
+    }
+
+    // File Handling: Appends to the log, rolling it first when it has grown too large
+    private void write(String entry) {
+        try {
+            if (Files.exists(log) && Files.size(log) > MAX_LOG_BYTES) {
+                roll();
+            }
+            try (Writer out = Files.newBufferedWriter(log, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(entry);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing " + log + ": " + e.getMessage());
+        }
+    }
+
+    // edt_stalls.log -> .1 -> .2 ..., dropping the oldest
+    private void roll() throws IOException {
+        Files.deleteIfExists(rolled(MAX_LOG_FILES - 1));
+        for (int i = MAX_LOG_FILES - 2; i >= 1; i--) {
+            if (Files.exists(rolled(i))) {
+                Files.move(rolled(i), rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(log, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rolled(int generation) {
+        return log.resolveSibling(log.getFileName() + "." + generation);
+    }
+}
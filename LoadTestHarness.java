@@ -0,0 +1,357 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Replays user sessions against the non-GUI layer and reports latency percentiles and heap usage.
+// A session does what a GUI user does: register, log in, add skills, run an analysis, log out.
+// Runs against the user data and career_paths.txt in the working directory; use a scratch directory.
+// With --http the sessions go over localhost HTTP to an in-process SkillAnalyzerServer instead, one virtual
+// thread per concurrent client, so threads can be in the thousands.
+//
+// LoadTestHarness <sessions> [threads] [skillsPerSession] [preloadUsers] [--http]
+public class LoadTestHarness {
+
+    private static final String[] OPERATIONS = {"register", "login", "addSkill", "analyze", "logout", "session"};
+
+    // Latencies of one operation; one instance per thread, merged at the end
+    static class LatencyRecorder {
+        private long[] samples = new long[1024];
+        private int count;
+
+        void record(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+        }
+
+        void addAll(LatencyRecorder other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.samples[i]);
+            }
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        // Nearest-rank percentile in nanoseconds; sorts the samples
+        long percentile(double p) {
+            if (count == 0) {
+                return 0;
+            }
+            Arrays.sort(samples, 0, count);
+            int rank = (int) Math.ceil(p / 100.0 * count);
+            return samples[Math.max(0, Math.min(count - 1, rank - 1))];
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        boolean http = false;
+        for (String arg : args) {
+            if (arg.equals("--http")) {
+                http = true;
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (positional.isEmpty()) {
+            System.err.println("Usage: LoadTestHarness <sessions> [threads] [skillsPerSession] [preloadUsers] [--http]");
+            return;
+        }
+        int sessions = Integer.parseInt(positional.get(0));
+        int threads = positional.size() > 1 ? Integer.parseInt(positional.get(1)) : 1;
+        int skillsPerSession = positional.size() > 2 ? Integer.parseInt(positional.get(2)) : 5;
+        int preload = positional.size() > 3 ? Integer.parseInt(positional.get(3)) : 0;
+
+        PopulationGenerator generator = new PopulationGenerator(7);
+        UserStore store = new PersistentUserStore();
+        if (preload > 0) {
+            long start = System.nanoTime();
+            UserPersistence.saveUsers(generator.population(preload));
+            System.out.printf("Preloaded %d users in %d ms%n", preload, (System.nanoTime() - start) / 1_000_000);
+        }
+        CareerCatalog catalog = CareerPathLoader.loadCatalog();
+        if (catalog.size() == 0) {
+            System.err.println("No career paths in " + CareerPathLoader.CAREER_PATH_FILE + "; generate one with PopulationGenerator.");
+            return;
+        }
+        CareerPath[] paths = catalog.getPaths().values().toArray(new CareerPath[0]);
+
+        long openStart = System.nanoTime();
+        UserPersistence.open();
+        System.out.printf("Opened %d users in %d ms, heap used %s%n", UserPersistence.getUserCount(),
+                (System.nanoTime() - openStart) / 1_000_000, megabytes(usedHeapAfterGc()));
+
+        // Journal write latency (queued to flushed), reported by the persistence writer
+        LatencyRecorder saves = new LatencyRecorder();
+        UserPersistence.setSaveListener((records, latencyNanos, error) -> {
+            synchronized (saves) {
+                saves.record(latencyNanos);
+            }
+        });
+
+        SessionClient<?> client;
+        SkillAnalyzerServer server = null;
+        ExecutorService pool;
+        if (http) {
+            server = new SkillAnalyzerServer(store, new CatalogReloader(Paths.get(CareerPathLoader.CAREER_PATH_FILE), catalog));
+            server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            pool = Executors.newVirtualThreadPerTaskExecutor();
+            HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(pool).build();
+            client = new HttpSessionClient(httpClient, URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/api/"));
+        } else {
+            pool = Executors.newFixedThreadPool(threads);
+            client = new StoreClient(store, catalog);
+        }
+        List<Future<Map<String, LatencyRecorder>>> results = new ArrayList<>();
+        long runStart = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int share = sessions / threads + (t < sessions % threads ? 1 : 0);
+            long seed = 1000 + t;
+            results.add(pool.submit(() -> runSessions(client, share, skillsPerSession, paths, generator, new Random(seed))));
+        }
+
+        Map<String, LatencyRecorder> totals = new LinkedHashMap<>();
+        for (String operation : OPERATIONS) {
+            totals.put(operation, new LatencyRecorder());
+        }
+        for (Future<Map<String, LatencyRecorder>> result : results) {
+            for (Map.Entry<String, LatencyRecorder> entry : result.get().entrySet()) {
+                totals.get(entry.getKey()).addAll(entry.getValue());
+            }
+        }
+        long runNanos = System.nanoTime() - runStart;
+        pool.shutdown();
+        if (server != null) {
+            server.stop();
+        }
+
+        long flushStart = System.nanoTime();
+        UserPersistence.flushWrites();
+        long flushNanos = System.nanoTime() - flushStart;
+
+        System.out.printf("%d %ssessions on %d threads in %d ms (%.0f sessions/s), final flush %d ms%n", sessions, http ? "HTTP " : "", threads,
+                runNanos / 1_000_000, sessions / (runNanos / 1e9), flushNanos / 1_000_000);
+        System.out.printf("%-10s %9s %10s %10s %10s %10s%n", "operation", "count", "p50 us", "p90 us", "p99 us", "max us");
+        for (Map.Entry<String, LatencyRecorder> entry : totals.entrySet()) {
+            printRow(entry.getKey(), entry.getValue());
+        }
+        synchronized (saves) {
+            printRow("journal", saves);
+        }
+        System.out.printf("Heap used after GC %s, peak heap %s, users %d%n",
+                megabytes(usedHeapAfterGc()), megabytes(peakHeap()), UserPersistence.getUserCount());
+        UserPersistence.close();
+    }
+
+    // The actions of one session, either straight through a UserStore or over HTTP; S is a logged-in session
+    interface SessionClient<S> {
+        String register(String fullName, String password) throws Exception;
+
+        S login(String userId, String password) throws Exception;
+
+        void addSkill(S session, Skill skill) throws Exception;
+
+        void analyze(S session, CareerPath path) throws Exception;
+
+        void logout(S session) throws Exception;
+    }
+
+    // In process, like the GUI
+    static class StoreClient implements SessionClient<UserProfile> {
+        private final UserStore store;
+        private final CareerCatalog catalog;
+
+        StoreClient(UserStore store, CareerCatalog catalog) {
+            this.store = store;
+            this.catalog = catalog;
+        }
+
+        public String register(String fullName, String password) throws IOException {
+            return store.register(fullName, password).getUserId();
+        }
+
+        // Checks the password as the GUI and SkillAnalyzerServer.login do, so a login costs the same here
+        public UserProfile login(String userId, String password) throws IOException {
+            UserProfile user = store.find(userId);
+            if (user == null) {
+                throw new IOException("User ID not found: " + userId);
+            }
+            if (!user.getPassword().equals(password)) {
+                throw new IOException("Invalid Password for " + userId);
+            }
+            return user;
+        }
+
+        public void addSkill(UserProfile session, Skill skill) {
+            store.addSkill(session, skill.getName(), skill.getType(), skill.getProficiency());
+        }
+
+        public void analyze(UserProfile session, CareerPath path) {
+            AnalysisReport.render(session, catalog, path, 5);
+        }
+
+        public void logout(UserProfile session) {
+            // Nothing to save, every change was journaled when it was made
+        }
+    }
+
+    // Through SkillAnalyzerServer; the session is the bearer token
+    static class HttpSessionClient implements SessionClient<String> {
+        private final HttpClient client;
+        private final URI base;
+
+        HttpSessionClient(HttpClient client, URI base) {
+            this.client = client;
+            this.base = base;
+        }
+
+        public String register(String fullName, String password) throws Exception {
+            return field(send("POST", "register", null, "fullName", fullName, "password", password), "userId");
+        }
+
+        public String login(String userId, String password) throws Exception {
+            return field(send("POST", "login", null, "userId", userId, "password", password), "token");
+        }
+
+        public void addSkill(String token, Skill skill) throws Exception {
+            send("POST", "skills", token, "name", skill.getName(), "type", skill.getType(),
+                    "proficiency", String.valueOf(skill.getProficiency()));
+        }
+
+        public void analyze(String token, CareerPath path) throws Exception {
+            send("GET", "analyze", token, "path", path.getName());
+        }
+
+        public void logout(String token) throws Exception {
+            send("POST", "logout", token);
+        }
+
+        private String send(String method, String endpoint, String token, String... params) throws Exception {
+            StringBuilder form = new StringBuilder();
+            for (int i = 0; i < params.length; i += 2) {
+                form.append(i == 0 ? "" : "&").append(URLEncoder.encode(params[i], StandardCharsets.UTF_8))
+                        .append('=').append(URLEncoder.encode(params[i + 1], StandardCharsets.UTF_8));
+            }
+            HttpRequest.Builder request;
+            if (method.equals("GET")) {
+                request = HttpRequest.newBuilder(base.resolve(endpoint + "?" + form)).GET();
+            } else {
+                request = HttpRequest.newBuilder(base.resolve(endpoint))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(form.toString()));
+            }
+            if (token != null) {
+                request.header("Authorization", "Bearer " + token);
+            }
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 400) {
+                throw new IOException(endpoint + " failed with " + response.statusCode() + ": " + response.body());
+            }
+            return response.body();
+        }
+
+        // The string value of a top-level field in a flat JSON reply
+        private static String field(String json, String name) {
+            String key = "\"" + name + "\": \"";
+            int start = json.indexOf(key) + key.length();
+            return json.substring(start, json.indexOf('"', start));
+        }
+    }
+
+    private static <S> Map<String, LatencyRecorder> runSessions(SessionClient<S> client, int sessions, int skillsPerSession,
+                                                                CareerPath[] paths, PopulationGenerator shared, Random random) throws Exception {
+        Map<String, LatencyRecorder> latencies = new LinkedHashMap<>();
+        for (String operation : OPERATIONS) {
+            latencies.put(operation, new LatencyRecorder());
+        }
+        for (int s = 0; s < sessions; s++) {
+            long sessionStart = System.nanoTime();
+
+            // Register
+            long start = System.nanoTime();
+            UserProfile user;
+            synchronized (shared) {
+                user = shared.nextUser();
+            }
+            String userId = client.register(user.getFullName(), user.getPassword());
+            long now = System.nanoTime();
+            latencies.get("register").record(now - start);
+
+            // Log in
+            start = now;
+            S session = client.login(userId, user.getPassword());
+            now = System.nanoTime();
+            latencies.get("login").record(now - start);
+
+            // Add skills, each one a separate action as in the GUI
+            for (int i = 0; i < skillsPerSession && i < user.getSkills().size(); i++) {
+                Skill skill = user.getSkills().get(i);
+                start = System.nanoTime();
+                client.addSkill(session, skill);
+                latencies.get("addSkill").record(System.nanoTime() - start);
+            }
+
+            // Analyze against a random path
+            start = System.nanoTime();
+            client.analyze(session, paths[random.nextInt(paths.length)]);
+            now = System.nanoTime();
+            latencies.get("analyze").record(now - start);
+
+            // Log out
+            start = now;
+            client.logout(session);
+            now = System.nanoTime();
+            latencies.get("logout").record(now - start);
+
+            latencies.get("session").record(now - sessionStart);
+        }
+        return latencies;
+    }
+
+    private static void printRow(String operation, LatencyRecorder recorder) {
+        System.out.printf("%-10s %9d %10.1f %10.1f %10.1f %10.1f%n", operation, recorder.getCount(),
+                recorder.percentile(50) / 1e3, recorder.percentile(90) / 1e3, recorder.percentile(99) / 1e3,
+                recorder.percentile(100) / 1e3);
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,325 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+// Process-wide runtime metrics: latency histograms, counters and gauges, created by name on first use.
+// Recording takes no lock, so it is cheap enough for every request. Once enableJmx() has been called every
+// metric is also an MBean (SkillAnalyzer:type=Latency|Counter|Gauge,name=...) for JConsole or VisualVM,
+// and startLog() appends a snapshot of all of them to a file at a fixed rate.
+// Operators turn both on with -Dskillanalyzer.metrics.log=<file> and -Dskillanalyzer.metrics.seconds=<period>,
+// see startReporting().
+public class Metrics {
+
+    public static final String JMX_DOMAIN = "SkillAnalyzer";
+    public static final String DEFAULT_LOG_FILE = "metrics.log";
+
+    public interface LatencyMBean {
+        long getCount();
+
+        double getMeanMillis();
+
+        double getP50Millis();
+
+        double getP90Millis();
+
+        double getP99Millis();
+
+        double getMaxMillis();
+
+        void reset();
+    }
+
+    public interface CounterMBean {
+        long getValue();
+    }
+
+    public interface GaugeMBean {
+        long getValue();
+    }
+
+    // Latencies in nanoseconds, in log-linear buckets: eight per power of two, so a percentile is off by at
+    // most 1/8 of its value however large it is, in a fixed few KB per histogram
+    public static class Latency implements LatencyMBean {
+        private static final int SUB_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        private static final int BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        public void record(long nanos) {
+            nanos = Math.max(0, nanos);
+            counts.incrementAndGet(bucketOf(nanos));
+            count.increment();
+            sum.add(nanos);
+            max.accumulateAndGet(nanos, Math::max);
+        }
+
+        // Records the time since start, a System.nanoTime() value
+        public void recordSince(long start) {
+            record(System.nanoTime() - start);
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Override
+        public double getMeanMillis() {
+            long n = count.sum();
+            return n == 0 ? 0 : sum.sum() / (double) n / 1e6;
+        }
+
+        @Override
+        public double getP50Millis() {
+            return percentile(50) / 1e6;
+        }
+
+        @Override
+        public double getP90Millis() {
+            return percentile(90) / 1e6;
+        }
+
+        @Override
+        public double getP99Millis() {
+            return percentile(99) / 1e6;
+        }
+
+        @Override
+        public double getMaxMillis() {
+            return max.get() / 1e6;
+        }
+
+        // Nearest-rank percentile in nanoseconds: the middle of the bucket it falls into, 0 with no samples
+        public long percentile(double p) {
+            long total = 0;
+            long[] snapshot = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = counts.get(i);
+                total += snapshot[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(p / 100 * total));
+            for (int i = 0; i < BUCKETS; i++) {
+                rank -= snapshot[i];
+                if (rank <= 0) {
+                    long middle = lowerBound(i) + (i + 1 < BUCKETS ? (lowerBound(i + 1) - lowerBound(i)) / 2 : 0);
+                    return Math.min(middle, max.get());
+                }
+            }
+            return max.get();
+        }
+
+        @Override
+        public void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.set(i, 0);
+            }
+            count.reset();
+            sum.reset();
+            max.set(0);
+        }
+
+        private static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        private static long lowerBound(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+            return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+        }
+    }
+
+    public static class Counter implements CounterMBean {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        @Override
+        public long getValue() {
+            return value.sum();
+        }
+    }
+
+    // Reads its value when asked; a supplier that fails reports -1
+    public static class Gauge implements GaugeMBean {
+        private final LongSupplier supplier;
+
+        Gauge(LongSupplier supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public long getValue() {
+            try {
+                return supplier.getAsLong();
+            } catch (RuntimeException e) {
+                return -1;
+            }
+        }
+    }
+
+    // Sorted, so the log lists metrics in a stable order
+    private static final Map<String, Latency> latencies = new ConcurrentSkipListMap<>();
+    private static final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private static final Map<String, Gauge> gauges = new ConcurrentSkipListMap<>();
+
+    private static boolean jmxEnabled;
+    private static ScheduledExecutorService logger;
+
+    // Encapsulation: Utility class, metrics are looked up by name
+
+    public static Latency latency(String name) {
+        Latency latency = latencies.get(name);
+        if (latency == null) {
+            synchronized (Metrics.class) {
+                latency = latencies.get(name);
+                if (latency == null) {
+                    latency = new Latency();
+                    latencies.put(name, latency);
+                    register("Latency", name, latency, LatencyMBean.class);
+                }
+            }
+        }
+        return latency;
+    }
+
+    public static Counter counter(String name) {
+        Counter counter = counters.get(name);
+        if (counter == null) {
+            synchronized (Metrics.class) {
+                counter = counters.get(name);
+                if (counter == null) {
+                    counter = new Counter();
+                    counters.put(name, counter);
+                    register("Counter", name, counter, CounterMBean.class);
+                }
+            }
+        }
+        return counter;
+    }
+
+    // Registers (or replaces) the gauge of that name
+    public static synchronized void gauge(String name, LongSupplier supplier) {
+        Gauge gauge = new Gauge(supplier);
+        gauges.put(name, gauge);
+        register("Gauge", name, gauge, GaugeMBean.class);
+    }
+
+    // Exposes every metric, now and later, as an MBean on the platform MBean server
+    public static synchronized void enableJmx() {
+        if (jmxEnabled) {
+            return;
+        }
+        jmxEnabled = true;
+        latencies.forEach((name, latency) -> register("Latency", name, latency, LatencyMBean.class));
+        counters.forEach((name, counter) -> register("Counter", name, counter, CounterMBean.class));
+        gauges.forEach((name, gauge) -> register("Gauge", name, gauge, GaugeMBean.class));
+    }
+
+    // Appends a snapshot to file every periodSeconds, on a daemon thread; replaces an earlier schedule
+    public static synchronized void startLog(Path file, long periodSeconds) {
+        stopLog();
+        logger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.scheduleAtFixedRate(() -> {
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writeSnapshot(out);
+            } catch (IOException e) {
+                System.err.println("Error writing metrics to " + file + ": " + e.getMessage());
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stopLog() {
+        if (logger != null) {
+            logger.shutdown();
+            logger = null;
+        }
+    }
+
+    // JMX always; the periodic log when skillanalyzer.metrics.seconds is set (to skillanalyzer.metrics.log,
+    // metrics.log by default)
+    public static void startReporting() {
+        enableJmx();
+        long seconds = Long.getLong("skillanalyzer.metrics.seconds", 0);
+        if (seconds > 0) {
+            startLog(Paths.get(System.getProperty("skillanalyzer.metrics.log", DEFAULT_LOG_FILE)), seconds);
+        }
+    }
+
+    // One line per metric, each starting with the same timestamp
+    public static void writeSnapshot(Writer out) throws IOException {
+        String time = Instant.now().toString();
+        for (Map.Entry<String, Latency> entry : latencies.entrySet()) {
+            Latency latency = entry.getValue();
+            out.write(String.format("%s latency %s count=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms%n",
+                    time, entry.getKey(), latency.getCount(), latency.getMeanMillis(), latency.getP50Millis(),
+                    latency.getP90Millis(), latency.getP99Millis(), latency.getMaxMillis()));
+        }
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            out.write(time + " counter " + entry.getKey() + " " + entry.getValue().getValue() + System.lineSeparator());
+        }
+        for (Map.Entry<String, Gauge> entry : gauges.entrySet()) {
+            out.write(time + " gauge " + entry.getKey() + " " + entry.getValue().getValue() + System.lineSeparator());
+        }
+    }
+
+    // Called with the class lock held
+    private static <T> void register(String type, String name, T metric, Class<T> mbeanInterface) {
+        if (!jmxEnabled) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(new StandardMBean(metric, mbeanInterface), objectName);
+        } catch (JMException e) {
+            System.err.println("Cannot register metric " + name + " with JMX: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// File Handling: Dedicated thread that writes journal records, so no caller (in particular the Swing event thread)
+// ever waits for the disk. Records that pile up while a write is in progress are written together as one batch
+// with a single flush, so a burst of rapid changes costs one write.
+public class PersistenceWriter {
+
+    // Receives each batch; runs on the writer thread
+    public interface BatchSink {
+        void write(List<UserJournal.Record> batch) throws IOException;
+    }
+
+    // Notified after every batch, on the writer thread; error is null when the batch was written
+    public interface SaveListener {
+        void saved(int records, long latencyNanos, IOException error);
+    }
+
+    private final LinkedBlockingQueue<UserJournal.Record> queue = new LinkedBlockingQueue<>();
+    private final BatchSink sink;
+    private final Thread thread;
+    private volatile SaveListener listener;
+    private volatile boolean running = true;
+
+    // Counters guarded by this, used by flush() to wait for everything submitted before it
+    private long submitted;
+    private long written;
+
+    private volatile long lastLatencyNanos;
+
+    // From queueing a record until its batch is in the journal
+    private static final Metrics.Latency SAVE_LATENCY = Metrics.latency("journal.save");
+    private static final Metrics.Counter SAVED_RECORDS = Metrics.counter("journal.records");
+    private static final Metrics.Counter SAVE_ERRORS = Metrics.counter("journal.errors");
+
+    public PersistenceWriter(BatchSink sink) {
+        this.sink = sink;
+        this.thread = new Thread(this::run, "persistence-writer");
+        // Daemon so a forgotten shutdown() cannot keep the JVM alive; UserPersistence flushes from a shutdown hook
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void setSaveListener(SaveListener listener) {
+        this.listener = listener;
+    }
+
+    public void submit(UserJournal.Record record) {
+        synchronized (this) {
+            if (!running) {
+                throw new IllegalStateException("Persistence writer has been shut down");
+            }
+            submitted++;
+        }
+        queue.add(record);
+    }
+
+    // Records submitted but not written yet
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getLastLatencyNanos() {
+        return lastLatencyNanos;
+    }
+
+    // Blocks until every record submitted before this call has been written (or has failed)
+    public synchronized void flush() {
+        long target = submitted;
+        boolean interrupted = false;
+        while (written < target && thread.isAlive()) {
+            try {
+                wait(100);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Writes everything still queued, then stops the thread
+    public void shutdown() {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        flush();
+        thread.interrupt();
+    }
+
+    private void run() {
+        List<UserJournal.Record> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue; // shutdown() interrupts only once the queue has been flushed
+            }
+            // Coalesce: everything that arrived while the previous batch was being written goes out together
+            queue.drainTo(batch);
+
+            IOException error = null;
+            try {
+                sink.write(UserJournal.coalesce(batch));
+            } catch (IOException e) {
+                error = e;
+            }
+            long latency = System.nanoTime() - batch.get(0).getCreatedNanos();
+            lastLatencyNanos = latency;
+            SAVE_LATENCY.record(latency);
+            SAVED_RECORDS.add(batch.size());
+            if (error != null) {
+                SAVE_ERRORS.increment();
+            }
+
+            synchronized (this) {
+                written += batch.size();
+                notifyAll();
+            }
+            SaveListener current = listener;
+            if (current != null) {
+                current.saved(batch.size(), latency, error);
+            }
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+import java.io.IOException;
+
+// UserStore over UserPersistence: profiles are cached in memory and every change is journaled.
+// UserPersistence hands out one live profile per user, so the profile's own lock is the per-user lock: each
+// change and its journal record are made together under it, two threads changing the same user journal in the
+// same order they changed it, and different users never wait for each other.
+// Snapshots copy a profile's immutable state, so a save never sees a half-made change.
+// Lock order: the profile before any lock inside UserPersistence.
+public class PersistentUserStore implements UserStore {
+
+    @Override
+    public boolean exists(String userId) {
+        return UserPersistence.userExists(userId);
+    }
+
+    @Override
+    public UserProfile find(String userId) {
+        return UserPersistence.findUser(userId);
+    }
+
+    @Override
+    public UserProfile register(String fullName, String password) throws IOException {
+        UserProfile user = new UserProfile(fullName, password, UserPersistence.allocateUserId(fullName));
+        UserPersistence.recordRegister(user);
+        return user;
+    }
+
+    @Override
+    public boolean addSkill(UserProfile user, String name, String type, int proficiency) {
+        synchronized (user) {
+            if (!user.addSkill(name, type, proficiency)) {
+                return false;
+            }
+            UserPersistence.recordAddSkill(user, name, type, proficiency);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean removeSkill(UserProfile user, String name, String type) {
+        synchronized (user) {
+            if (!user.removeSkill(name, type)) {
+                return false;
+            }
+            UserPersistence.recordRemoveSkill(user, name, type);
+            return true;
+        }
+    }
+
+    @Override
+    public void setField(UserProfile user, String field) {
+        synchronized (user) {
+            user.setField(field);
+            UserPersistence.recordSetField(user, field);
+        }
+    }
+
+    @Override
+    public int size() {
+        return UserPersistence.getUserCount();
+    }
+
+    @Override
+    public PopulationStats stats() {
+        return UserPersistence.getPopulationStats();
+    }
+}
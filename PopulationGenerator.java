@@ -0,0 +1,252 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Generates synthetic user populations and matching career path catalogs for sizing and load tests.
+// Names and skills are drawn from Zipf distributions (a few very common, a long tail of rare ones), proficiencies
+// from a normal distribution clamped to 1-10. The same seed always produces the same data.
+public class PopulationGenerator {
+
+    private static final String[] FIRST_NAMES = {
+            "Muhammad", "Ali", "Ahmed", "Fatima", "Ayesha", "Hassan", "Sara", "Usman", "Zainab", "Bilal",
+            "Maria", "John", "Aisha", "Omar", "Hina", "David", "Emma", "Imran", "Sana", "James",
+            "Noor", "Daniel", "Amna", "Hamza", "Olivia", "Rashida", "Kamran", "Sophia", "Yusuf", "Mehak"};
+    private static final String[] LAST_NAMES = {
+            "Khan", "Ahmed", "Ali", "Hussain", "Malik", "Sheikh", "Qureshi", "Butt", "Iqbal", "Raza",
+            "Smith", "Azeemi", "Chaudhry", "Siddiqui", "Baig", "Mirza", "Brown", "Shah", "Javed", "Rana"};
+    private static final String[] TECHNICAL_SKILLS = {
+            "Python", "Java", "SQL", "JavaScript", "HTML", "CSS", "Deep Learning", "Machine Learning", "Networking",
+            "Embedded Systems", "Control Systems", "Figma", "SEO", "C++", "Cloud Computing", "Linux", "Git",
+            "Data Visualization", "Statistics", "React", "Docker", "Kubernetes", "Cybersecurity", "Excel", "Go"};
+    private static final String[] SOFT_SKILLS = {
+            "Communication", "Teamwork", "Problem Solving", "Critical Thinking", "Creativity", "Empathy",
+            "Leadership", "Time Management", "Adaptability", "Negotiation", "Presentation", "Mentoring"};
+
+    private final Random random;
+    private int minSkills = 3;
+    private int maxSkills = 10;
+    private double proficiencyMean = 6.0;
+    private double proficiencyStdDev = 2.0;
+    private double softSkillShare = 0.3;
+    private ZipfSampler firstNames;
+    private ZipfSampler lastNames;
+    private ZipfSampler technicalSkills;
+    private ZipfSampler softSkills;
+    // Vocabulary, built once so generated profiles share the name strings
+    private String[] technicalNames;
+    private String[] softNames;
+
+    // Per full-name sequence so every generated userId is unique
+    private final Map<String, Integer> nameSequences = new HashMap<>();
+
+    public PopulationGenerator(long seed) {
+        random = new Random(seed);
+        setNameSkew(1.0);
+        setSkillVocabulary(200, 40, 1.0);
+    }
+
+    // Skills per user, uniformly between min and max
+    public void setSkillCount(int min, int max) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("Invalid skill count range " + min + "-" + max);
+        }
+        minSkills = min;
+        maxSkills = max;
+    }
+
+    public void setProficiencySpread(double mean, double stdDev) {
+        proficiencyMean = mean;
+        proficiencyStdDev = stdDev;
+    }
+
+    // Zipf exponent for first and last names; 0 is uniform, larger values concentrate on the common names
+    public void setNameSkew(double exponent) {
+        firstNames = new ZipfSampler(FIRST_NAMES.length, exponent);
+        lastNames = new ZipfSampler(LAST_NAMES.length, exponent);
+    }
+
+    // Number of distinct technical and soft skill names, and the Zipf exponent of their popularity
+    public void setSkillVocabulary(int technical, int soft, double exponent) {
+        technicalSkills = new ZipfSampler(technical, exponent);
+        softSkills = new ZipfSampler(soft, exponent);
+        technicalNames = vocabulary(TECHNICAL_SKILLS, "Technical Skill ", technical);
+        softNames = vocabulary(SOFT_SKILLS, "Soft Skill ", soft);
+    }
+
+    public void setSoftSkillShare(double share) {
+        softSkillShare = share;
+    }
+
+    public UserProfile nextUser() {
+        String fullName = FIRST_NAMES[firstNames.next(random)] + " " + LAST_NAMES[lastNames.next(random)];
+        UserProfile user = new UserProfile(fullName, "password" + random.nextInt(1_000_000), nextUserId(fullName));
+        user.setField(random.nextInt(3) == 0 ? null : "Computer Science");
+        addSkills(user, minSkills + random.nextInt(maxSkills - minSkills + 1));
+        return user;
+    }
+
+    // Adds count more distinct skills to the user
+    public void addSkills(UserProfile user, int count) {
+        int target = user.getSkillCount() + count;
+        int attempts = 0;
+        // Bounded, in case the vocabulary is smaller than requested
+        while (user.getSkillCount() < target && attempts++ < count * 20) {
+            boolean soft = random.nextDouble() < softSkillShare;
+            user.addSkill(soft ? softSkill(softSkills.next(random)) : technicalSkill(technicalSkills.next(random)),
+                    soft ? "Soft" : "Technical", nextProficiency());
+        }
+    }
+
+    public int nextProficiency() {
+        long value = Math.round(proficiencyMean + random.nextGaussian() * proficiencyStdDev);
+        return (int) Math.max(1, Math.min(10, value));
+    }
+
+    public Map<String, UserProfile> population(int users) {
+        Map<String, UserProfile> population = new HashMap<>(users * 2);
+        for (int i = 0; i < users; i++) {
+            UserProfile user = nextUser();
+            population.put(user.getUserId(), user);
+        }
+        return population;
+    }
+
+    // Career paths over the same skill vocabulary, so generated users match some of them
+    public Map<String, CareerPath> catalog(int paths, int skillsPerPath) {
+        Map<String, CareerPath> catalog = new LinkedHashMap<>();
+        for (int p = 0; p < paths; p++) {
+            List<CareerPath.Requirement> requirements = new ArrayList<>(skillsPerPath);
+            while (requirements.size() < skillsPerPath) {
+                boolean soft = random.nextDouble() < softSkillShare;
+                requirements.add(new CareerPath.Requirement(
+                        soft ? softSkill(softSkills.next(random)) : technicalSkill(technicalSkills.next(random)),
+                        soft ? "Soft" : "Technical", 1 + random.nextInt(3), 5 + random.nextInt(5)));
+            }
+            String name = "Career Path " + (p + 1);
+            catalog.put(name, new CareerPath(name, requirements));
+        }
+        return catalog;
+    }
+
+    // The catalog in career_paths.txt format
+    public static List<String> catalogLines(Map<String, CareerPath> catalog) {
+        List<String> lines = new ArrayList<>(catalog.size() + 1);
+        lines.add("# Generated by PopulationGenerator");
+        for (CareerPath path : catalog.values()) {
+            StringBuilder line = new StringBuilder(path.getName()).append(':');
+            for (CareerPath.Requirement requirement : path.getRequirements()) {
+                line.append(line.charAt(line.length() - 1) == ':' ? " " : "; ")
+                        .append(requirement.getName()).append('|').append(requirement.getType()).append('|')
+                        .append(requirement.getWeight()).append('|').append(requirement.getMinProficiency());
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    // Same as the GUI's ids (initial + name + number), numbered per name from 1000 so they never collide
+    private String nextUserId(String fullName) {
+        String cleanName = fullName.replaceAll("\\s+", "");
+        int sequence = nameSequences.merge(cleanName, 1, Integer::sum) + 999;
+        return cleanName.substring(0, 1).toUpperCase() + cleanName + sequence;
+    }
+
+    private String technicalSkill(int rank) {
+        return technicalNames[rank];
+    }
+
+    private String softSkill(int rank) {
+        return softNames[rank];
+    }
+
+    // Well-known names first, then numbered ones
+    private static String[] vocabulary(String[] known, String prefix, int size) {
+        String[] names = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = i < known.length ? known[i] : prefix + (i + 1);
+        }
+        return names;
+    }
+
+    // Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent
+    private static class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, exponent);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int next(Random random) {
+            double u = random.nextDouble();
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < u) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    // Writes a population through UserPersistence and a matching catalog into the working directory, which should
+    // not be the project root (see README):
+    // PopulationGenerator <users> [paths] [skillsPerPath] [seed] [--force]
+    public static void main(String[] args) throws IOException {
+        List<String> positional = new ArrayList<>();
+        boolean force = false;
+        for (String arg : args) {
+            if (arg.equals("--force")) {
+                force = true;
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (positional.isEmpty()) {
+            System.err.println("Usage: PopulationGenerator <users> [paths] [skillsPerPath] [seed] [--force]");
+            return;
+        }
+        int users = Integer.parseInt(positional.get(0));
+        int paths = positional.size() > 1 ? Integer.parseInt(positional.get(1)) : 100;
+        int skillsPerPath = positional.size() > 2 ? Integer.parseInt(positional.get(2)) : 10;
+        long seed = positional.size() > 3 ? Long.parseLong(positional.get(3)) : 42;
+
+        Path catalogFile = Paths.get(CareerPathLoader.CAREER_PATH_FILE);
+        // Both the user data and the catalog (career_paths.txt is part of the project) are replaced
+        for (Path existing : new Path[]{Paths.get("user_data.bin"), Paths.get("user_data.ser"), catalogFile}) {
+            if (!force && Files.exists(existing)) {
+                System.err.println(existing.toAbsolutePath() + " already exists, pass --force to replace it.");
+                return;
+            }
+        }
+
+        PopulationGenerator generator = new PopulationGenerator(seed);
+        long start = System.nanoTime();
+        Files.write(catalogFile, catalogLines(generator.catalog(paths, skillsPerPath)));
+        Map<String, UserProfile> population = generator.population(users);
+        long generated = System.nanoTime();
+        UserPersistence.saveUsers(population);
+        long saved = System.nanoTime();
+
+        System.out.printf("Generated %d users in %d ms, saved in %d ms; %d career paths in %s%n",
+                population.size(), (generated - start) / 1_000_000, (saved - generated) / 1_000_000, paths, catalogFile);
+    }
+}
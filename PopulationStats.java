@@ -0,0 +1,343 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Population-wide skill-gap aggregates for dashboards, kept current change by change instead of by scanning users:
+//   - per skill, how many users hold it at each proficiency (1-10)
+//   - per career path, how many users reach each match score (0-100), so the share of users at or above any score
+//     is a short sum
+//   - per requirement of a path, how many users lack the skill or hold it below the required proficiency; this is
+//     read off the skill's histogram, so a path's most common gaps need no per-user state at all
+// A registration, added or removed skill costs the same however many users there are: only the paths requiring
+// that skill are rescored, for that one user. Reads only walk the histograms, so a live view can poll them.
+// Path scores are kept for one catalog at a time; the first read for a new catalog (after a reload) rescores
+// every user once from the skills held here, without reading any profile. Thread-safe.
+public class PopulationStats implements UserAggregate {
+
+    private static final int MAX_PROFICIENCY = 10;
+    private static final int MAX_SCORE = 100;
+
+    // Encapsulation: Immutable read results
+
+    public static class SkillDistribution {
+        private final String name;
+        private final String type;
+        private final long[] counts;
+
+        SkillDistribution(String name, String type, long[] counts) {
+            this.name = name;
+            this.type = type;
+            this.counts = counts;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        // Users holding the skill at this proficiency (1-10)
+        public long getCount(int proficiency) {
+            return proficiency >= 1 && proficiency <= MAX_PROFICIENCY ? counts[proficiency] : 0;
+        }
+
+        public long getUserCount() {
+            long users = 0;
+            for (int p = 1; p <= MAX_PROFICIENCY; p++) {
+                users += counts[p];
+            }
+            return users;
+        }
+
+        public double getMeanProficiency() {
+            long users = 0;
+            long sum = 0;
+            for (int p = 1; p <= MAX_PROFICIENCY; p++) {
+                users += counts[p];
+                sum += p * counts[p];
+            }
+            return users == 0 ? 0 : sum / (double) users;
+        }
+    }
+
+    // Users who lack a required skill or hold it below the required proficiency
+    public static class Gap {
+        private final String name;
+        private final String type;
+        private final int minProficiency;
+        private final long userCount;
+
+        Gap(String name, String type, int minProficiency, long userCount) {
+            this.name = name;
+            this.type = type;
+            this.minProficiency = minProficiency;
+            this.userCount = userCount;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getMinProficiency() {
+            return minProficiency;
+        }
+
+        public long getUserCount() {
+            return userCount;
+        }
+    }
+
+    public static class PathStats {
+        private final String careerPath;
+        private final long userCount;
+        private final long readyCount;
+        private final List<Gap> gaps;
+
+        PathStats(String careerPath, long userCount, long readyCount, List<Gap> gaps) {
+            this.careerPath = careerPath;
+            this.userCount = userCount;
+            this.readyCount = readyCount;
+            this.gaps = gaps;
+        }
+
+        public String getCareerPath() {
+            return careerPath;
+        }
+
+        public long getUserCount() {
+            return userCount;
+        }
+
+        // Users whose match score reaches the score asked for
+        public long getReadyCount() {
+            return readyCount;
+        }
+
+        public double getReadyPercent() {
+            return userCount == 0 ? 0 : readyCount * 100.0 / userCount;
+        }
+
+        // Most common gaps first
+        public List<Gap> getGaps() {
+            return gaps;
+        }
+    }
+
+    // userId -> (skill key -> proficiency)
+    private final Map<String, SkillKeyIndex> userSkills = new HashMap<>();
+    // Skill key -> users by proficiency
+    private final Map<Integer, long[]> distributions = new HashMap<>();
+
+    // Path scores for one catalog, null until a path is asked about
+    private CareerCatalog catalog;
+    private CareerPath[] paths;
+    // [path][score] -> users
+    private long[][] scores;
+    // Skill key -> indexes of the paths requiring it
+    private Map<Integer, int[]> pathsBySkill;
+
+    // Counts every skill of the profile, replacing whatever was counted for that user before
+    @Override
+    public synchronized void addUser(UserProfile user) {
+        removeUser(user.getUserId());
+        UserProfile snapshot = user.copy();
+        SkillKeyIndex skills = new SkillKeyIndex(snapshot.getSkillCount());
+        for (int s = 0; s < snapshot.getSkillCount(); s++) {
+            int key = snapshot.getSkillKey(s);
+            int proficiency = clamp(snapshot.getSkillProficiency(s));
+            if (skills.get(key) < 0) {
+                skills.put(key, proficiency);
+                distribution(key)[proficiency]++;
+            }
+        }
+        userSkills.put(user.getUserId(), skills);
+        countScores(skills, 1);
+    }
+
+    @Override
+    public synchronized void addUserIfAbsent(UserProfile user) {
+        if (!userSkills.containsKey(user.getUserId())) {
+            addUser(user);
+        }
+    }
+
+    @Override
+    public synchronized void removeUser(String userId) {
+        SkillKeyIndex skills = userSkills.remove(userId);
+        if (skills == null) {
+            return;
+        }
+        countScores(skills, -1);
+        for (int key : skills.keys()) {
+            distributions.get(key)[skills.get(key)]--;
+        }
+    }
+
+    // Same splitting and aliases as UserProfile.addSkill
+    @Override
+    public synchronized void addSkill(String userId, String name, String type, int proficiency) {
+        SkillKeyIndex skills = userSkills.get(userId);
+        if (skills == null) {
+            return;
+        }
+        for (int key : SkillDictionary.keys(name, type)) {
+            // A skill the user already has keeps its proficiency, as in the profile
+            if (skills.get(key) < 0) {
+                changeSkill(skills, key, clamp(proficiency));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void removeSkill(String userId, String name, String type) {
+        SkillKeyIndex skills = userSkills.get(userId);
+        if (skills == null) {
+            return;
+        }
+        for (int key : SkillDictionary.lookupKeys(name, type)) {
+            if (skills.get(key) >= 0) {
+                changeSkill(skills, key, -1);
+            }
+        }
+    }
+
+    public synchronized int getUserCount() {
+        return userSkills.size();
+    }
+
+    // Every skill somebody holds, the most widely held first; at most limit of them
+    public synchronized List<SkillDistribution> getSkillDistributions(int limit) {
+        List<SkillDistribution> held = new ArrayList<>();
+        for (Map.Entry<Integer, long[]> entry : distributions.entrySet()) {
+            int key = entry.getKey();
+            SkillDistribution distribution = new SkillDistribution(SkillDictionary.nameOfKey(key),
+                    SkillDictionary.typeOfKey(key), entry.getValue().clone());
+            if (distribution.getUserCount() > 0) {
+                held.add(distribution);
+            }
+        }
+        held.sort((a, b) -> Long.compare(b.getUserCount(), a.getUserCount()));
+        return held.size() > limit ? new ArrayList<>(held.subList(0, limit)) : held;
+    }
+
+    // Every path of the catalog, in catalog order: how many users have a match score of at least minScore,
+    // and up to maxGaps of the path's requirements that the most users fall short of
+    public synchronized List<PathStats> getPathStats(CareerCatalog catalog, int minScore, int maxGaps) {
+        useCatalog(catalog);
+        long users = userSkills.size();
+        List<PathStats> stats = new ArrayList<>(paths.length);
+        for (int j = 0; j < paths.length; j++) {
+            long ready = 0;
+            for (int score = Math.max(0, minScore); score <= MAX_SCORE; score++) {
+                ready += scores[j][score];
+            }
+            stats.add(new PathStats(paths[j].getName(), users, ready, gaps(paths[j], users, maxGaps)));
+        }
+        return stats;
+    }
+
+    private List<Gap> gaps(CareerPath path, long users, int maxGaps) {
+        List<Gap> gaps = new ArrayList<>(path.getSkillCount());
+        for (int i = 0; i < path.getSkillCount(); i++) {
+            // Users without the skill count as proficiency 0, as in CareerPath.score
+            int minProficiency = path.getMinProficiency(i);
+            long meeting = minProficiency <= 0 ? users : 0;
+            long[] distribution = distributions.get(path.getSkillKey(i));
+            if (distribution != null) {
+                for (int p = Math.max(1, minProficiency); p <= MAX_PROFICIENCY; p++) {
+                    meeting += distribution[p];
+                }
+            }
+            if (users > meeting) {
+                CareerPath.Requirement requirement = path.getRequirements().get(i);
+                gaps.add(new Gap(requirement.getName(), requirement.getType(), minProficiency, users - meeting));
+            }
+        }
+        // Stable, so equally common gaps stay in requirement order
+        gaps.sort((a, b) -> Long.compare(b.getUserCount(), a.getUserCount()));
+        return gaps.size() > maxGaps ? new ArrayList<>(gaps.subList(0, Math.max(0, maxGaps))) : gaps;
+    }
+
+    // Sets one skill of a user (-1 removes it) and moves the user between score buckets of the paths requiring it
+    private void changeSkill(SkillKeyIndex skills, int key, int proficiency) {
+        int[] affected = pathsBySkill == null ? null : pathsBySkill.get(key);
+        if (affected != null) {
+            for (int j : affected) {
+                scores[j][score(paths[j], skills)]--;
+            }
+        }
+        if (proficiency < 0) {
+            distributions.get(key)[skills.remove(key)]--;
+        } else {
+            skills.put(key, proficiency);
+            distribution(key)[proficiency]++;
+        }
+        if (affected != null) {
+            for (int j : affected) {
+                scores[j][score(paths[j], skills)]++;
+            }
+        }
+    }
+
+    // Rescores everyone if the catalog is not the one the scores were kept for
+    private void useCatalog(CareerCatalog current) {
+        if (catalog != null && catalog.getVersion() == current.getVersion()) {
+            return;
+        }
+        paths = current.getPaths().values().toArray(new CareerPath[0]);
+        scores = new long[paths.length][MAX_SCORE + 1];
+        Map<Integer, List<Integer>> requiring = new HashMap<>();
+        for (int j = 0; j < paths.length; j++) {
+            for (int i = 0; i < paths[j].getSkillCount(); i++) {
+                List<Integer> indexes = requiring.computeIfAbsent(paths[j].getSkillKey(i), k -> new ArrayList<>());
+                if (!indexes.contains(j)) {
+                    indexes.add(j);
+                }
+            }
+        }
+        pathsBySkill = new HashMap<>();
+        for (Map.Entry<Integer, List<Integer>> entry : requiring.entrySet()) {
+            pathsBySkill.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        catalog = current;
+        for (SkillKeyIndex skills : userSkills.values()) {
+            countScores(skills, 1);
+        }
+    }
+
+    private void countScores(SkillKeyIndex skills, int delta) {
+        if (paths == null) {
+            return;
+        }
+        for (int j = 0; j < paths.length; j++) {
+            scores[j][score(paths[j], skills)] += delta;
+        }
+    }
+
+    // Same as CareerPath.score, over the skills held here
+    private static int score(CareerPath path, SkillKeyIndex skills) {
+        int metWeight = 0;
+        for (int i = 0; i < path.getSkillCount(); i++) {
+            if (Math.max(0, skills.get(path.getSkillKey(i))) >= path.getMinProficiency(i)) {
+                metWeight += path.getWeight(i);
+            }
+        }
+        return metWeight * MAX_SCORE / path.getTotalWeight();
+    }
+
+    private long[] distribution(int key) {
+        return distributions.computeIfAbsent(key, k -> new long[MAX_PROFICIENCY + 1]);
+    }
+
+    // Proficiencies outside 1-10, which neither the GUI nor the service accept, are counted at the nearest end
+    private static int clamp(int proficiency) {
+        return Math.max(1, Math.min(MAX_PROFICIENCY, proficiency));
+    }
+}
@@ -0,0 +1,430 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// File Handling: Bulk import and export of user profiles as CSV or JSON Lines, streamed so the profiles of a file
+// of any size are never all held in memory at once.
+//   CSV   : a header (userId,fullName,password,field,skill,type,proficiency), then one row per skill; a user without
+//           skills has one row with the skill columns empty. A user's rows are consecutive and repeat the first four
+//           columns. Values are quoted as in ReportWriter and may contain commas and quotes, but not line breaks.
+//   JSONL : one profile per line: {"userId", "fullName", "password", "field", "skills": [{"name", "type", "proficiency"}]}
+// On import an empty userId gets a new one as on registration, and a user who is already registered is replaced.
+// The file is read in chunks of lines that are parsed on every core, and the profiles are staged in batches and
+// merged into the store once at the end (UserPersistence.BulkImport). The userId of every profile staged so far is
+// kept, to tell which copy of a repeated user is the latest, so memory still grows with the number of users, if only
+// by their ids. Rows that fail the same checks as the GUI and the HTTP service are reported on System.err and skipped.
+// Export walks the store one profile at a time (UserPersistence.forEachUser) and includes the passwords.
+public class ProfileTransfer {
+
+    public enum Format {
+        CSV, JSONL;
+
+        // "csv" or "jsonl" ("json" also works), in any case
+        public static Format of(String name) {
+            String format = name.trim().toUpperCase(Locale.ROOT);
+            return valueOf(format.equals("JSON") ? "JSONL" : format);
+        }
+    }
+
+    private static final String CSV_HEADER = "userId,fullName,password,field,skill,type,proficiency\n";
+    private static final int CSV_COLUMNS = 7;
+    // Lines per parsing task; a CSV chunk runs on to the last row of its last user
+    private static final int CHUNK_LINES = 4096;
+    // Profiles per staged batch, which is what bounds the memory of an import
+    private static final int BATCH_SIZE = 50_000;
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final int MIN_PASSWORD_LENGTH = 8;
+
+    // Encapsulation: Utility class, methods are static
+
+    // Imports every valid profile in file; returns the number of distinct users imported
+    public static int importUsers(Path file, Format format) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService parsers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "profile-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             UserPersistence.BulkImport bulk = UserPersistence.beginImport()) {
+            Importer importer = new Importer(bulk);
+            ChunkReader chunks = new ChunkReader(reader, format);
+            Deque<Future<Parsed>> inFlight = new ArrayDeque<>();
+            Chunk chunk;
+            while ((chunk = chunks.next()) != null) {
+                Chunk next = chunk;
+                inFlight.add(parsers.submit(() -> parse(next, format)));
+                // Read ahead only so far, and stage in file order so that a later row always wins
+                if (inFlight.size() > 2 * threads) {
+                    importer.stage(await(inFlight.poll()));
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                importer.stage(await(inFlight.poll()));
+            }
+            importer.finish();
+            return bulk.getUserCount();
+        } finally {
+            parsers.shutdownNow();
+        }
+    }
+
+    // Writes every registered user; returns how many
+    public static int exportUsers(Writer out, Format format) throws IOException {
+        if (format == Format.CSV) {
+            out.write(CSV_HEADER);
+        }
+        int[] count = new int[1];
+        UserPersistence.forEachUser(user -> {
+            // One snapshot, so the field and skills belong together
+            UserProfile snapshot = user.copy();
+            if (format == Format.CSV) {
+                writeCsv(out, snapshot);
+            } else {
+                writeJson(out, snapshot);
+            }
+            count[0]++;
+        });
+        out.flush();
+        return count[0];
+    }
+
+    private static void writeCsv(Writer out, UserProfile user) throws IOException {
+        if (user.getSkillCount() == 0) {
+            writeCsvUser(out, user);
+            out.write(",,,\n");
+        }
+        for (int s = 0; s < user.getSkillCount(); s++) {
+            writeCsvUser(out, user);
+            out.write(',');
+            ReportWriter.writeCsvField(out, SkillDictionary.nameOfKey(user.getSkillKey(s)));
+            out.write(',');
+            ReportWriter.writeCsvField(out, SkillDictionary.typeOfKey(user.getSkillKey(s)));
+            out.write(',');
+            out.write(Integer.toString(user.getSkillProficiency(s)));
+            out.write('\n');
+        }
+    }
+
+    // The first four columns, without a trailing comma
+    private static void writeCsvUser(Writer out, UserProfile user) throws IOException {
+        ReportWriter.writeCsvField(out, user.getUserId());
+        out.write(',');
+        ReportWriter.writeCsvField(out, user.getFullName());
+        out.write(',');
+        ReportWriter.writeCsvField(out, user.getPassword());
+        out.write(',');
+        ReportWriter.writeCsvField(out, user.getField());
+    }
+
+    private static void writeJson(Writer out, UserProfile user) throws IOException {
+        out.write("{\"userId\": ");
+        Json.quote(out, user.getUserId());
+        out.write(", \"fullName\": ");
+        Json.quote(out, user.getFullName());
+        out.write(", \"password\": ");
+        Json.quote(out, user.getPassword());
+        out.write(", \"field\": ");
+        Json.quote(out, user.getField());
+        out.write(", \"skills\": [");
+        for (int s = 0; s < user.getSkillCount(); s++) {
+            out.write(s == 0 ? "{\"name\": " : ", {\"name\": ");
+            Json.quote(out, SkillDictionary.nameOfKey(user.getSkillKey(s)));
+            out.write(", \"type\": ");
+            Json.quote(out, SkillDictionary.typeOfKey(user.getSkillKey(s)));
+            out.write(", \"proficiency\": ");
+            out.write(Integer.toString(user.getSkillProficiency(s)));
+            out.write('}');
+        }
+        out.write("]}\n");
+    }
+
+    // Consecutive lines of the input; firstLine is the 1-based line number of the first one
+    private static class Chunk {
+        final long firstLine;
+        final List<String> lines = new ArrayList<>();
+
+        Chunk(long firstLine) {
+            this.firstLine = firstLine;
+        }
+    }
+
+    // Profiles of one chunk in file order, and the rows that were rejected
+    private static class Parsed {
+        final List<UserProfile> users = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+    }
+
+    // Cuts the input into chunks; runs on the importing thread, so it only looks at where users start and end
+    private static class ChunkReader {
+        private final BufferedReader reader;
+        private final Format format;
+        private long lineNumber;
+        // Read ahead when the last chunk was cut, the first line of the next one
+        private String pending;
+
+        ChunkReader(BufferedReader reader, Format format) throws IOException {
+            this.reader = reader;
+            this.format = format;
+            pending = readLine();
+            if (pending != null && pending.startsWith("\uFEFF")) {
+                // Byte order mark, as spreadsheet programs write it
+                pending = pending.substring(1);
+            }
+            if (pending != null && format == Format.CSV && pending.regionMatches(true, 0, "userId,", 0, 7)) {
+                pending = readLine();
+            }
+        }
+
+        Chunk next() throws IOException {
+            if (pending == null) {
+                return null;
+            }
+            Chunk chunk = new Chunk(lineNumber);
+            chunk.lines.add(pending);
+            String line;
+            while ((line = readLine()) != null) {
+                if (chunk.lines.size() >= CHUNK_LINES
+                        && (format == Format.JSONL || !userKey(line).equals(userKey(chunk.lines.get(chunk.lines.size() - 1))))) {
+                    pending = line;
+                    return chunk;
+                }
+                chunk.lines.add(line);
+            }
+            pending = null;
+            return chunk;
+        }
+
+        private String readLine() throws IOException {
+            lineNumber++;
+            return reader.readLine();
+        }
+    }
+
+    // Stages parsed profiles in batches and reports rejected rows
+    private static class Importer {
+        private final UserPersistence.BulkImport bulk;
+        private List<UserProfile> batch = new ArrayList<>();
+        private long rejected;
+
+        Importer(UserPersistence.BulkImport bulk) {
+            this.bulk = bulk;
+        }
+
+        void stage(Parsed parsed) throws IOException {
+            for (String error : parsed.errors) {
+                if (rejected++ < MAX_REPORTED_ERRORS) {
+                    System.err.println(error);
+                }
+            }
+            batch.addAll(parsed.users);
+            if (batch.size() >= BATCH_SIZE) {
+                bulk.add(batch);
+                batch = new ArrayList<>();
+            }
+        }
+
+        void finish() throws IOException {
+            bulk.add(batch);
+            if (rejected > MAX_REPORTED_ERRORS) {
+                System.err.println("... and " + (rejected - MAX_REPORTED_ERRORS) + " more rows skipped");
+            }
+            bulk.commit();
+        }
+    }
+
+    private static Parsed await(Future<Parsed> parsed) throws IOException {
+        try {
+            return parsed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error parsing profiles: " + e.getCause(), e.getCause());
+        }
+    }
+
+    // Runs on a parser thread
+    private static Parsed parse(Chunk chunk, Format format) throws IOException {
+        Parsed parsed = new Parsed();
+        String userKey = null;
+        UserProfile user = null;
+        for (int i = 0; i < chunk.lines.size(); i++) {
+            String line = chunk.lines.get(i);
+            long lineNumber = chunk.firstLine + i;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                if (format == Format.JSONL) {
+                    parsed.users.add(parseJson(line, parsed.errors, lineNumber));
+                    continue;
+                }
+                // The rows of a user repeat its first four columns; the first of them creates the profile
+                List<String> fields = csvFields(line);
+                if (!userKey(line).equals(userKey)) {
+                    userKey = userKey(line);
+                    // Stays null if the user columns are rejected, so the user's other rows are skipped quietly
+                    user = null;
+                    user = newUser(fields.get(0), fields.get(1), fields.get(2), fields.get(3));
+                    parsed.users.add(user);
+                }
+                if (user != null && !(fields.get(4).isEmpty() && fields.get(5).isEmpty() && fields.get(6).isEmpty())) {
+                    addSkill(user, fields.get(4), fields.get(5), parseProficiency(fields.get(6)));
+                }
+            } catch (IllegalArgumentException e) {
+                parsed.errors.add("Line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        return parsed;
+    }
+
+    // A bad skill only drops that skill, reported in errors; anything else wrong drops the whole profile
+    private static UserProfile parseJson(String line, List<String> errors, long lineNumber) throws IOException {
+        Object value = Json.parse(line);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Expected a JSON object.");
+        }
+        Map<?, ?> profile = (Map<?, ?>) value;
+        UserProfile user = newUser(string(profile, "userId"), string(profile, "fullName"), string(profile, "password"),
+                string(profile, "field"));
+        Object skills = profile.get("skills");
+        if (skills != null && !(skills instanceof List)) {
+            throw new IllegalArgumentException("\"skills\" must be an array.");
+        }
+        if (skills != null) {
+            for (Object skill : (List<?>) skills) {
+                try {
+                    if (!(skill instanceof Map)) {
+                        throw new IllegalArgumentException("Each skill must be a JSON object.");
+                    }
+                    Map<?, ?> fields = (Map<?, ?>) skill;
+                    // Anything but a whole number from 1 to 10 is rejected by addSkill as 0
+                    Object proficiency = fields.get("proficiency");
+                    long level = proficiency instanceof Long ? (Long) proficiency : 0;
+                    addSkill(user, string(fields, "name"), string(fields, "type"), level >= 1 && level <= 10 ? (int) level : 0);
+                } catch (IllegalArgumentException e) {
+                    errors.add("Line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+        return user;
+    }
+
+    // A string member, "" if it is missing or null
+    private static String string(Map<?, ?> object, String name) {
+        Object value = object.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("\"" + name + "\" must be a string.");
+        }
+        return value == null ? "" : (String) value;
+    }
+
+    // Same checks as registration; an empty userId gets a new one
+    private static UserProfile newUser(String userId, String fullName, String password, String field) throws IOException {
+        fullName = fullName.trim();
+        if (fullName.isEmpty() || password.isEmpty()) {
+            throw new IllegalArgumentException("Full Name and Password cannot be empty.");
+        }
+        if (password.length() < MIN_PASSWORD_LENGTH) {
+            throw new IllegalArgumentException("Password must be at least 8 characters long.");
+        }
+        userId = userId.trim();
+        UserProfile user = new UserProfile(fullName, password, userId.isEmpty() ? UserPersistence.allocateUserId(fullName) : userId);
+        if (!field.isBlank()) {
+            user.setField(field.trim());
+        }
+        return user;
+    }
+
+    // Same checks as adding a skill in the GUI; a skill the user already has is ignored
+    private static void addSkill(UserProfile user, String name, String type, int proficiency) {
+        name = name.trim();
+        type = type.trim();
+        if (name.isEmpty() || proficiency < 1 || proficiency > 10) {
+            throw new IllegalArgumentException("Please enter a valid skill name and proficiency (1-10).");
+        }
+        if (type.equalsIgnoreCase("Technical")) {
+            type = "Technical";
+        } else if (type.equalsIgnoreCase("Soft")) {
+            type = "Soft";
+        } else {
+            throw new IllegalArgumentException("Skill type must be Technical or Soft.");
+        }
+        user.addSkill(name, type, proficiency);
+    }
+
+    private static int parseProficiency(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Please enter a valid skill name and proficiency (1-10).");
+        }
+    }
+
+    // The first four columns of a CSV row as written, quotes included: rows with the same key belong to one user
+    private static String userKey(String line) {
+        boolean quoted = false;
+        int commas = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted && ++commas == 4) {
+                return line.substring(0, i);
+            }
+        }
+        return line;
+    }
+
+    // Splits a CSV row, undoing the quoting of ReportWriter.writeCsvField
+    private static List<String> csvFields(String line) {
+        List<String> fields = new ArrayList<>(CSV_COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value.");
+        }
+        fields.add(field.toString());
+        if (fields.size() != CSV_COLUMNS) {
+            throw new IllegalArgumentException("Expected " + CSV_COLUMNS + " columns, found " + fields.size() + ".");
+        }
+        return fields;
+    }
+}
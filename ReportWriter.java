@@ -0,0 +1,273 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+// File Handling: Writes analysis results straight to a stream as text, JSON or CSV, piece by piece, without
+// building the report as a string first, so the reports of a whole population can be exported at I/O speed.
+//   TEXT : the report as shown on the Analyze page, reports separated by a blank line
+//   JSON : one JSON object per line (JSON Lines), so a reader can process a huge export line by line
+//   CSV  : a header, then per result one "path" row and one "skill" row per required skill, and one "best"
+//          row per best-matching path (in rank order); columns not used by a row are left empty
+// Not thread-safe; wraps the given stream and closes it on close().
+public class ReportWriter implements Closeable, Flushable {
+
+    public enum Format {
+        TEXT, JSON, CSV;
+
+        // "text", "json" or "csv", in any case
+        public static Format of(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final String RULE = "--------------------------------------------------\n";
+    private static final String CSV_HEADER = "record,userId,careerPath,matchScore,skill,type,proficiency,required,weight,status\n";
+
+    private final Writer out;
+    private final Format format;
+    private boolean started;
+    // Digits of one number, reused so numbers are written without a String each
+    private final char[] digits = new char[11];
+
+    public ReportWriter(Writer out, Format format) {
+        this.out = out;
+        this.format = format;
+    }
+
+    // UTF-8 through a buffer
+    public ReportWriter(OutputStream out, Format format) {
+        this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16), format);
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    // A full report: the breakdown for the chosen path and the user's best-matching paths
+    public void writeReport(AnalysisResult result, List<AnalysisResult> ranking) throws IOException {
+        start();
+        switch (format) {
+            case TEXT:
+                out.write("Overall Match Score: ");
+                writeInt(result.getMatchScore());
+                out.write("%\n\n");
+                writeTextMatches(result);
+                writeTextRoadmap(result);
+                out.write("\nYour Best Matching Career Paths:\n");
+                out.write(RULE);
+                if (ranking.isEmpty()) {
+                    out.write("No career path matches your current skills yet.\n");
+                }
+                for (int i = 0; i < ranking.size(); i++) {
+                    writeInt(i + 1);
+                    out.write(". ");
+                    out.write(ranking.get(i).getCareerPath());
+                    out.write(": ");
+                    writeInt(ranking.get(i).getMatchScore());
+                    out.write("%\n");
+                }
+                break;
+            case JSON:
+                writeJsonResult(result);
+                out.write(", \"bestMatches\": [");
+                for (int i = 0; i < ranking.size(); i++) {
+                    out.write(i == 0 ? "{\"careerPath\": " : ", {\"careerPath\": ");
+                    Json.quote(out, ranking.get(i).getCareerPath());
+                    out.write(", \"matchScore\": ");
+                    writeInt(ranking.get(i).getMatchScore());
+                    out.write('}');
+                }
+                out.write("]}\n");
+                break;
+            case CSV:
+                writeCsvResult(result);
+                for (AnalysisResult best : ranking) {
+                    writeCsvRow("best", best.getUserId(), best.getCareerPath(), best.getMatchScore());
+                    out.write(",,,,,,\n");
+                }
+                break;
+        }
+    }
+
+    // One user scored against one path, e.g. a row of the batch job's results
+    public void writeResult(AnalysisResult result) throws IOException {
+        start();
+        switch (format) {
+            case TEXT:
+                out.write(result.getUserId());
+                out.write(" -> ");
+                out.write(result.getCareerPath());
+                out.write(": ");
+                writeInt(result.getMatchScore());
+                out.write("%\n");
+                writeTextMatches(result);
+                break;
+            case JSON:
+                writeJsonResult(result);
+                out.write("}\n");
+                break;
+            case CSV:
+                writeCsvResult(result);
+                break;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    // Header (CSV) or separator (TEXT) before each entry
+    private void start() throws IOException {
+        if (!started) {
+            started = true;
+            if (format == Format.CSV) {
+                out.write(CSV_HEADER);
+            }
+        } else if (format == Format.TEXT) {
+            out.write('\n');
+        }
+    }
+
+    private void writeTextMatches(AnalysisResult result) throws IOException {
+        out.write("Career Match Score:\n");
+        out.write(RULE);
+        for (AnalysisResult.SkillMatch match : result.getSkillMatches()) {
+            out.write(match.getType());
+            out.write(" Skill (");
+            out.write(match.getName());
+            out.write("): Status: ");
+            out.write(AnalysisReport.status(match));
+            out.write(" (Prof: ");
+            writeInt(match.getProficiency());
+            out.write("/10, Required: ");
+            writeInt(match.getMinProficiency());
+            out.write(")\n");
+        }
+    }
+
+    private void writeTextRoadmap(AnalysisResult result) throws IOException {
+        out.write("\nPersonalized Roadmap:\n");
+        out.write(RULE);
+        for (AnalysisResult.SkillMatch match : result.getSkillMatches()) {
+            out.write(match.isMet() ? "-> STRENGTH: " : "-> GAP: ");
+            out.write(match.getName());
+            out.write(". ");
+            out.write(AnalysisReport.advice(match));
+            out.write('\n');
+        }
+    }
+
+    // The result's object, left open for more members
+    private void writeJsonResult(AnalysisResult result) throws IOException {
+        out.write("{\"userId\": ");
+        Json.quote(out, result.getUserId());
+        out.write(", \"careerPath\": ");
+        Json.quote(out, result.getCareerPath());
+        out.write(", \"matchScore\": ");
+        writeInt(result.getMatchScore());
+        out.write(", \"skills\": [");
+        List<AnalysisResult.SkillMatch> matches = result.getSkillMatches();
+        for (int i = 0; i < matches.size(); i++) {
+            AnalysisResult.SkillMatch match = matches.get(i);
+            out.write(i == 0 ? "{\"name\": " : ", {\"name\": ");
+            Json.quote(out, match.getName());
+            out.write(", \"type\": ");
+            Json.quote(out, match.getType());
+            out.write(", \"proficiency\": ");
+            writeInt(match.getProficiency());
+            out.write(", \"required\": ");
+            writeInt(match.getMinProficiency());
+            out.write(", \"weight\": ");
+            writeInt(match.getWeight());
+            out.write(", \"status\": ");
+            Json.quote(out, AnalysisReport.status(match));
+            out.write(", \"advice\": ");
+            Json.quote(out, AnalysisReport.advice(match));
+            out.write('}');
+        }
+        out.write(']');
+    }
+
+    private void writeCsvResult(AnalysisResult result) throws IOException {
+        writeCsvRow("path", result.getUserId(), result.getCareerPath(), result.getMatchScore());
+        out.write(",,,,,,\n");
+        for (AnalysisResult.SkillMatch match : result.getSkillMatches()) {
+            writeCsvRow("skill", result.getUserId(), result.getCareerPath(), result.getMatchScore());
+            out.write(',');
+            writeCsvField(out, match.getName());
+            out.write(',');
+            writeCsvField(out, match.getType());
+            out.write(',');
+            writeInt(match.getProficiency());
+            out.write(',');
+            writeInt(match.getMinProficiency());
+            out.write(',');
+            writeInt(match.getWeight());
+            out.write(',');
+            writeCsvField(out, AnalysisReport.status(match));
+            out.write('\n');
+        }
+    }
+
+    // The first four columns, without a trailing comma
+    private void writeCsvRow(String record, String userId, String careerPath, int matchScore) throws IOException {
+        out.write(record);
+        out.write(',');
+        writeCsvField(out, userId);
+        out.write(',');
+        writeCsvField(out, careerPath);
+        out.write(',');
+        writeInt(matchScore);
+    }
+
+    // Quoted (with doubled quotes) only when the value contains a comma, quote or line break; null is left empty
+    static void writeCsvField(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private void writeInt(int value) throws IOException {
+        long remaining = Math.abs((long) value);
+        int position = digits.length;
+        do {
+            digits[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        if (value < 0) {
+            out.write('-');
+        }
+        out.write(digits, position, digits.length - position);
+    }
+}
@@ -0,0 +1,271 @@
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Headless matching logic: scores user profiles against career paths without touching any Swing state,
+// so it can be driven by the GUI for one user or by a batch job for the whole population.
+public class SkillAnalysisEngine {
+
+    // Below this many users a batch slice is scored directly instead of being split further
+    private static final int BATCH_SPLIT_THRESHOLD = 256;
+    // Users scored at a time by export
+    private static final int EXPORT_CHUNK_SIZE = 8192;
+
+    // Full breakdown of one user against one path; the score itself comes from the compiled path
+    public static AnalysisResult analyze(UserProfile user, CareerPath path) {
+        List<CareerPath.Requirement> requirements = path.getRequirements();
+        List<AnalysisResult.SkillMatch> matches = new ArrayList<>(requirements.size());
+        for (int i = 0; i < requirements.size(); i++) {
+            CareerPath.Requirement requirement = requirements.get(i);
+            int proficiency = user.getProficiency(path.getSkillKey(i));
+            matches.add(new AnalysisResult.SkillMatch(requirement.getName(), requirement.getType(), proficiency,
+                    requirement.getMinProficiency(), requirement.getWeight(), proficiency >= requirement.getMinProficiency()));
+        }
+        return new AnalysisResult(user.getUserId(), path.getName(), path.score(user), matches);
+    }
+
+    // The k career paths the user fits best, highest score first, with the full breakdown for each
+    public static List<AnalysisResult> recommend(UserProfile user, CareerCatalog catalog, int k) {
+        List<CareerPath> ranked = catalog.rankPaths(user, k);
+        List<AnalysisResult> results = new ArrayList<>(ranked.size());
+        for (CareerPath path : ranked) {
+            results.add(analyze(user, path));
+        }
+        return results;
+    }
+
+    public static int findSkillProficiency(UserProfile user, String name, String type) {
+        // Encapsulation: Constant time lookup through the profile's skill index (0 if not found)
+        return user.getProficiency(name, type);
+    }
+
+    // Scores every user against every career path on the common fork-join pool
+    public static List<AnalysisResult> analyzeAll(Collection<UserProfile> users, Map<String, CareerPath> careerPaths) {
+        return analyzeAll(users, careerPaths, ForkJoinPool.commonPool());
+    }
+
+    public static List<AnalysisResult> analyzeAll(Collection<UserProfile> users, Map<String, CareerPath> careerPaths, ForkJoinPool pool) {
+        UserProfile[] userArray = users.toArray(new UserProfile[0]);
+        // Sorted so every slice (and every run) reports paths in the same order
+        Map<String, CareerPath> sortedPaths = new TreeMap<>(careerPaths);
+        return pool.invoke(new BatchTask(userArray, 0, userArray.length, sortedPaths));
+    }
+
+    // Recursively halves the user range until a slice is small enough to score sequentially
+    private static class BatchTask extends RecursiveTask<List<AnalysisResult>> {
+        private static final long serialVersionUID = 1L;
+
+        private final UserProfile[] users;
+        private final int from;
+        private final int to;
+        private final Map<String, CareerPath> careerPaths;
+
+        BatchTask(UserProfile[] users, int from, int to, Map<String, CareerPath> careerPaths) {
+            this.users = users;
+            this.from = from;
+            this.to = to;
+            this.careerPaths = careerPaths;
+        }
+
+        @Override
+        protected List<AnalysisResult> compute() {
+            if (to - from <= BATCH_SPLIT_THRESHOLD) {
+                List<AnalysisResult> results = new ArrayList<>((to - from) * careerPaths.size());
+                for (int i = from; i < to; i++) {
+                    for (CareerPath path : careerPaths.values()) {
+                        results.add(analyze(users[i], path));
+                    }
+                }
+                return results;
+            }
+
+            int mid = (from + to) >>> 1;
+            BatchTask left = new BatchTask(users, from, mid, careerPaths);
+            BatchTask right = new BatchTask(users, mid, to, careerPaths);
+            left.fork();
+            List<AnalysisResult> results = right.compute();
+            // Keep user order stable: left half first
+            List<AnalysisResult> merged = left.join();
+            merged.addAll(results);
+            return merged;
+        }
+    }
+
+    // Streams every user's results against every path to out, in user order. Users are scored in parallel a chunk
+    // at a time while only that chunk's results are held, so the export runs at the speed of the output stream.
+    public static void export(Collection<UserProfile> users, Map<String, CareerPath> careerPaths, ReportWriter out) throws IOException {
+        List<UserProfile> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+        for (UserProfile user : users) {
+            chunk.add(user);
+            if (chunk.size() == EXPORT_CHUNK_SIZE) {
+                writeResults(analyzeAll(chunk, careerPaths), out);
+                chunk.clear();
+            }
+        }
+        writeResults(analyzeAll(chunk, careerPaths), out);
+        out.flush();
+    }
+
+    // Same for every registered user, read one at a time (UserPersistence.forEachUser) rather than loaded all
+    // at once; returns how many users were exported
+    public static int exportRegistered(Map<String, CareerPath> careerPaths, ReportWriter out) throws IOException {
+        List<UserProfile> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+        int[] count = new int[1];
+        UserPersistence.forEachUser(user -> {
+            // A copy, since profiles changed since the snapshot are the live ones
+            chunk.add(user.copy());
+            count[0]++;
+            if (chunk.size() == EXPORT_CHUNK_SIZE) {
+                writeResults(analyzeAll(chunk, careerPaths), out);
+                chunk.clear();
+            }
+        });
+        writeResults(analyzeAll(chunk, careerPaths), out);
+        out.flush();
+        return count[0];
+    }
+
+    private static void writeResults(List<AnalysisResult> results, ReportWriter out) throws IOException {
+        for (AnalysisResult result : results) {
+            out.writeResult(result);
+        }
+    }
+
+    // Headless entry point for the nightly re-scoring job.
+    // With arguments "candidates <career path> [k]" it lists the best-matching registered users instead,
+    // with "export <text|json|csv> [file]" it writes every result in that format to the file (or standard output).
+    public static void main(String[] args) {
+        if (args.length >= 3 && args[0].equals("import-users")) {
+            ProfileTransfer.Format format = transferFormat(args[1], "import-users <csv|jsonl> <file>");
+            if (format != null) {
+                importUsers(format, Paths.get(args[2]));
+            }
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("export-users")) {
+            ProfileTransfer.Format format = transferFormat(args[1], "export-users <csv|jsonl> [file]");
+            if (format != null) {
+                exportUsers(format, args.length > 2 ? Paths.get(args[2]) : null);
+            }
+            return;
+        }
+        Map<String, CareerPath> careerPaths = CareerPathLoader.loadCatalog().getPaths();
+        if (args.length >= 2 && args[0].equals("candidates")) {
+            int k;
+            try {
+                k = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+            } catch (NumberFormatException e) {
+                System.err.println("Usage: SkillAnalysisEngine candidates <career path> [k]");
+                return;
+            }
+            printCandidates(careerPaths.get(args[1]), k);
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("export")) {
+            ReportWriter.Format format;
+            try {
+                format = ReportWriter.Format.of(args[1]);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Usage: SkillAnalysisEngine export <text|json|csv> [file]");
+                return;
+            }
+            exportAll(careerPaths, format, args.length > 2 ? Paths.get(args[2]) : null);
+            return;
+        }
+        Map<String, UserProfile> users = UserPersistence.loadUsers();
+
+        long start = System.nanoTime();
+        List<AnalysisResult> results = analyzeAll(users.values(), careerPaths);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        for (AnalysisResult result : results) {
+            System.out.println(result);
+        }
+        System.out.println("Scored " + users.size() + " users against " + careerPaths.size()
+                + " career paths (" + results.size() + " results) in " + elapsedMs + " ms");
+    }
+
+    private static void exportAll(Map<String, CareerPath> careerPaths, ReportWriter.Format format, Path file) {
+        long start = System.nanoTime();
+        int exported;
+        try (OutputStream stream = file == null ? new FileOutputStream(FileDescriptor.out) : Files.newOutputStream(file);
+             ReportWriter out = new ReportWriter(stream, format)) {
+            exported = exportRegistered(careerPaths, out);
+        } catch (IOException e) {
+            System.err.println("Error exporting results" + (file == null ? "" : " to " + file) + ": " + e.getMessage());
+            return;
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.err.println("Exported " + exported + " users against " + careerPaths.size() + " career paths in " + elapsedMs + " ms");
+    }
+
+    // The named format, or null after printing the usage line if there is no such format
+    private static ProfileTransfer.Format transferFormat(String name, String usage) {
+        try {
+            return ProfileTransfer.Format.of(name);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Usage: SkillAnalysisEngine " + usage);
+            return null;
+        }
+    }
+
+    private static void importUsers(ProfileTransfer.Format format, Path file) {
+        long start = System.nanoTime();
+        int imported;
+        try {
+            imported = ProfileTransfer.importUsers(file, format);
+        } catch (IOException e) {
+            System.err.println("Error importing users from " + file + ": " + e.getMessage());
+            return;
+        } finally {
+            UserPersistence.close();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.err.println("Imported " + imported + " users from " + file + " in " + elapsedMs + " ms");
+    }
+
+    private static void exportUsers(ProfileTransfer.Format format, Path file) {
+        long start = System.nanoTime();
+        int exported;
+        try (OutputStream stream = file == null ? new FileOutputStream(FileDescriptor.out) : Files.newOutputStream(file);
+             Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 16)) {
+            exported = ProfileTransfer.exportUsers(out, format);
+        } catch (IOException e) {
+            System.err.println("Error exporting users" + (file == null ? "" : " to " + file) + ": " + e.getMessage());
+            return;
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.err.println("Exported " + exported + " users in " + elapsedMs + " ms");
+    }
+
+    private static void printCandidates(CareerPath path, int k) {
+        if (path == null) {
+            System.err.println("Unknown career path.");
+            return;
+        }
+        long start = System.nanoTime();
+        List<CandidateIndex.Candidate> candidates = UserPersistence.findCandidates(path, k);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        for (CandidateIndex.Candidate candidate : candidates) {
+            System.out.println(candidate);
+        }
+        System.out.println("Top " + candidates.size() + " candidates for " + path.getName() + " in " + elapsedMs + " ms");
+        UserPersistence.close();
+    }
+}
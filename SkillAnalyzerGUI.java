@@ -1,9 +1,15 @@
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 // Inheritance: SkillAnalyzerGUI extends JFrame
 public class SkillAnalyzerGUI extends JFrame {
@@ -19,11 +25,46 @@ public class SkillAnalyzerGUI extends JFrame {
 
     // Current user's profile once logged in
     private UserProfile currentUserProfile;
-
-    private Map<String, String[]> careerPaths;
-
-    // Key: userId, Value: UserProfile object
-    private Map<String, UserProfile> registeredUsers;
+    // Encapsulation: All user reads and changes go through the store
+    private final UserStore userStore = new PersistentUserStore();
+
+    // Holds the current career path catalog and swaps in a new one whenever career_paths.txt changes
+    // Null until the catalog has loaded
+    private volatile CatalogReloader catalogReloader;
+
+    // Startup: the catalog and the user store load in parallel on these threads while the window is already up.
+    // Registrations run here afterwards, since allocating a user ID syncs the ID file.
+    private final ExecutorService startupExecutor = Executors.newFixedThreadPool(2, r -> {
+        Thread thread = new Thread(r, "startup-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // EDT only
+    private boolean catalogLoaded;
+    private boolean usersLoaded;
+
+    // How many best-fitting paths the analysis report lists
+    private static final int TOP_PATHS = 5;
+
+    // Credential check and report building, without the time the user spends in dialogs
+    private static final Metrics.Latency LOGIN_TIME = Metrics.latency("login");
+    private static final Metrics.Counter LOGIN_FAILURES = Metrics.counter("login.failures");
+    private static final Metrics.Latency ANALYSIS_TIME = Metrics.latency("analysis");
+
+    // Re-running an analysis for an unchanged profile and catalog reuses the earlier results
+    private final AnalysisCache analysisCache = new AnalysisCache(64);
+
+    // Skill name suggestions are computed on their own thread, never on the EDT
+    private static final int MAX_SUGGESTIONS = 8;
+    private final ExecutorService suggestionExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "skill-suggester");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile SkillSuggester skillSuggester; // Built on the suggestion thread at startup
+    private final JPopupMenu suggestionPopup = new JPopupMenu();
+    private volatile int suggestionRequest; // Written on the EDT only; results of older requests are dropped
+    private boolean applyingSuggestion;
 
     // UI Elements for Profile Page
     private JTextField fieldField;
@@ -32,10 +73,18 @@ public class SkillAnalyzerGUI extends JFrame {
     private JTextField proficiencyField;
     private DefaultListModel<Skill> skillListModel = new DefaultListModel<>();
 
+    // Enabled once the load they need has finished
+    private JButton registerButton;
+    private JButton loginButton;
+
     // UI Elements for Analyze Page
     private JComboBox<String> pathCombo;
+    private JButton analyzeButton;
     private JTextArea reportArea;
 
+    // Status bar showing the outcome of the background saves
+    private JLabel saveStatusLabel;
+
     public SkillAnalyzerGUI() {
         // Frame Setup
         setTitle("🌟 Skill Analyzer");
@@ -45,15 +94,29 @@ public class SkillAnalyzerGUI extends JFrame {
         addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosing(java.awt.event.WindowEvent windowEvent) {
-                UserPersistence.saveUsers(registeredUsers);
+                // Write out any changes still queued before exiting
+                UserPersistence.close();
+                if (catalogReloader != null) {
+                    catalogReloader.stop();
+                }
                 System.exit(0);
             }
         });
         setLocationRelativeTo(null);
 
-        // Load data when the app starts
-        careerPaths = CareerPathLoader.loadCareerPaths();
-        registeredUsers = UserPersistence.loadUsers(); // Load all existing users
+        // Load data when the app starts, both at once and off the EDT; the window is shown meanwhile and each
+        // part of it is enabled when the load it needs has finished
+        CompletableFuture<CatalogReloader> catalogLoad = CompletableFuture.supplyAsync(
+                () -> new CatalogReloader(Paths.get(CareerPathLoader.CAREER_PATH_FILE), CareerPathLoader.loadCatalog()), startupExecutor);
+        // Profiles are read on demand at login
+        CompletableFuture<Void> usersLoad = CompletableFuture.runAsync(UserPersistence::open, startupExecutor);
+        startupExecutor.execute(Metrics::startReporting); // JMX, plus the periodic log if configured
+        // Index the skill names of the catalog and of every saved profile once the user store is open
+        usersLoad.thenRunAsync(() -> {
+            SkillSuggester suggester = new SkillSuggester();
+            suggester.addNames(UserPersistence.getSnapshotStrings());
+            skillSuggester = suggester;
+        }, suggestionExecutor);
 
         UIManager.put("Button.font", new Font("Segoe UI", Font.BOLD, 14));
         UIManager.put("Label.foreground", TEXT_COLOR);
@@ -74,24 +137,83 @@ public class SkillAnalyzerGUI extends JFrame {
         mainPanel.add(createDefineProfilePage(), "DefineProfile");
         mainPanel.add(createAnalyzePage(), "Analyze");
 
-        add(mainPanel);
+        saveStatusLabel = new JLabel(" ");
+        saveStatusLabel.setOpaque(true);
+        saveStatusLabel.setBackground(SECONDARY_COLOR);
+        saveStatusLabel.setBorder(new EmptyBorder(4, 10, 4, 10));
+        // Saves run on the persistence writer thread, so hop back onto the EDT to update the label
+        UserPersistence.setSaveListener((records, latencyNanos, error) -> SwingUtilities.invokeLater(() -> showSaveStatus(records, latencyNanos, error)));
+
+        add(mainPanel, BorderLayout.CENTER);
+        add(saveStatusLabel, BorderLayout.SOUTH);
         cardLayout.show(mainPanel, "Registration");
+        showLoadingStatus();
         setVisible(true);
+
+        catalogLoad.whenComplete((reloader, error) -> SwingUtilities.invokeLater(() -> catalogLoaded(reloader, error)));
+        usersLoad.whenComplete((ignored, error) -> SwingUtilities.invokeLater(() -> usersLoaded(error)));
+    }
+
+    private void catalogLoaded(CatalogReloader reloader, Throwable error) {
+        if (error != null) {
+            System.err.println("Error loading career paths: " + error.getMessage());
+            reloader = new CatalogReloader(Paths.get(CareerPathLoader.CAREER_PATH_FILE), new CareerCatalog(new HashMap<>()));
+        }
+        // Reloads run on the reloader thread; the drop-down is refreshed on the EDT
+        reloader.addListener(catalog -> SwingUtilities.invokeLater(() -> refreshPathCombo(catalog)));
+        reloader.addListener(analysisCache::retainCatalog);
+        reloader.start();
+        catalogReloader = reloader;
+        refreshPathCombo(reloader.current());
+        pathCombo.setEnabled(true);
+        analyzeButton.setEnabled(true);
+        catalogLoaded = true;
+        showLoadingStatus();
+    }
+
+    private void usersLoaded(Throwable error) {
+        if (error != null) {
+            System.err.println("Error loading user data: " + error.getMessage());
+        }
+        registerButton.setEnabled(true);
+        loginButton.setEnabled(true);
+        usersLoaded = true;
+        showLoadingStatus();
+    }
+
+    private void showLoadingStatus() {
+        saveStatusLabel.setForeground(TEXT_COLOR);
+        if (!usersLoaded && !catalogLoaded) {
+            saveStatusLabel.setText("Loading user data and career paths...");
+        } else if (!usersLoaded) {
+            saveStatusLabel.setText("Loading user data...");
+        } else if (!catalogLoaded) {
+            saveStatusLabel.setText("Loading career paths...");
+        } else {
+            saveStatusLabel.setText("Ready");
+        }
+    }
+
+    // Shows the paths of a reloaded catalog, keeping the current selection if that path still exists
+    private void refreshPathCombo(CareerCatalog catalog) {
+        Object selected = pathCombo.getSelectedItem();
+        pathCombo.setModel(new DefaultComboBoxModel<>(catalog.getPaths().keySet().toArray(new String[0])));
+        if (selected != null && catalog.getPath((String) selected) != null) {
+            pathCombo.setSelectedItem(selected);
+        }
     }
 
-    private String generateUserId(String fullName) {
-        String cleanName = fullName.replaceAll("\\s+", "");
-        String prefix = cleanName.isEmpty() ? "" : cleanName.substring(0, 1).toUpperCase();
-        // Append a random 4-digit number
-        int randomSuffix = new Random().nextInt(9000) + 1000;
-        String baseId = prefix + cleanName + randomSuffix;
-
-        // Ensure uniqueness (loop until a unique ID is generated)
-        while (registeredUsers.containsKey(baseId)) {
-            randomSuffix = new Random().nextInt(9000) + 1000;
-            baseId = prefix + cleanName + randomSuffix;
+    private void showSaveStatus(int records, long latencyNanos, IOException error) {
+        if (error != null) {
+            saveStatusLabel.setForeground(new Color(231, 76, 60));
+            saveStatusLabel.setText("Save failed: " + error.getMessage());
+            return;
         }
-        return baseId;
+        saveStatusLabel.setForeground(TEXT_COLOR);
+        int pending = UserPersistence.getPendingWrites();
+        saveStatusLabel.setText(pending > 0
+                ? "Saving... (" + pending + " pending)"
+                : String.format("All changes saved (%d in %.1f ms)", records, latencyNanos / 1_000_000.0));
     }
 
     private JPanel createRegistrationPage() {
@@ -118,7 +240,9 @@ public class SkillAnalyzerGUI extends JFrame {
         regFullNameField.setToolTipText("Enter your full name");
         JPasswordField regPasswordField = new JPasswordField(15);
         regPasswordField.setToolTipText("Minimum 8 characters required");
-        JButton registerButton = new JButton("REGISTER");
+        registerButton = new JButton("REGISTER");
+        registerButton.setName("register"); // Handler name in EDT stall reports
+        registerButton.setEnabled(false); // Until the user store is open
         JButton goToLoginButton = new JButton("Already Registered? Login");
 
         // Styling
@@ -146,21 +270,21 @@ public class SkillAnalyzerGUI extends JFrame {
             } else if (password.length() < 8) {
                 JOptionPane.showMessageDialog(this, "Password must be at least 8 characters long.", "Validation Error", JOptionPane.WARNING_MESSAGE);
             } else {
-                // Generate User ID and Register
-                String userId = generateUserId(fullName);
-                UserProfile newUser = new UserProfile(fullName, password, userId);
-                registeredUsers.put(userId, newUser);
-                UserPersistence.saveUsers(registeredUsers); // File Handling: Save data
-
-                JOptionPane.showMessageDialog(this,
-                        "Registration Successful! Your User ID is: " + userId + ". Please use this to log in.",
-                        "Success",
-                        JOptionPane.INFORMATION_MESSAGE);
-
-                // Clear fields and switch to login
-                regFullNameField.setText("");
-                regPasswordField.setText("");
-                cardLayout.show(mainPanel, "Login");
+                // Generate User ID and Register; File Handling: the store journals the registration
+                registerButton.setEnabled(false); // One registration at a time
+                startupExecutor.execute(() -> {
+                    String userId;
+                    try {
+                        userId = userStore.register(fullName, password).getUserId();
+                    } catch (IOException ex) {
+                        SwingUtilities.invokeLater(() -> {
+                            registerButton.setEnabled(true);
+                            JOptionPane.showMessageDialog(this, "Could not create a User ID: " + ex.getMessage(), "Registration Error", JOptionPane.ERROR_MESSAGE);
+                        });
+                        return;
+                    }
+                    SwingUtilities.invokeLater(() -> registered(userId, regFullNameField, regPasswordField));
+                });
             }
         });
 
@@ -169,6 +293,19 @@ public class SkillAnalyzerGUI extends JFrame {
         return panel;
     }
 
+    private void registered(String userId, JTextField fullNameField, JPasswordField passwordField) {
+        registerButton.setEnabled(true);
+        JOptionPane.showMessageDialog(this,
+                "Registration Successful! Your User ID is: " + userId + ". Please use this to log in.",
+                "Success",
+                JOptionPane.INFORMATION_MESSAGE);
+
+        // Clear fields and switch to login
+        fullNameField.setText("");
+        passwordField.setText("");
+        cardLayout.show(mainPanel, "Login");
+    }
+
     private JPanel createLoginPage() {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(SECONDARY_COLOR);
@@ -193,7 +330,9 @@ public class SkillAnalyzerGUI extends JFrame {
         userIdField.setToolTipText("Enter your generated User ID");
         JPasswordField passwordField = new JPasswordField(15);
         passwordField.setToolTipText("Enter your password");
-        JButton loginButton = new JButton("LOGIN");
+        loginButton = new JButton("LOGIN");
+        loginButton.setName("login");
+        loginButton.setEnabled(false); // Until the user store is open
         JButton goToRegisterButton = new JButton("New User? Register");
         // Removed original logoutButton which was redundant here
 
@@ -220,11 +359,17 @@ public class SkillAnalyzerGUI extends JFrame {
             String userId = userIdField.getText().trim();
             String password = new String(passwordField.getPassword());
 
-            // Check credentials against the loaded map
-            if (!registeredUsers.containsKey(userId)) {
+            // Check credentials against the stored profile (loaded from disk only on a cache miss)
+            long start = System.nanoTime();
+            UserProfile user = userStore.find(userId);
+            boolean valid = user != null && user.getPassword().equals(password);
+            LOGIN_TIME.recordSince(start);
+            if (!valid) {
+                LOGIN_FAILURES.increment();
+            }
+            if (user == null) {
                 JOptionPane.showMessageDialog(this, "User ID not found.", "Login Error", JOptionPane.ERROR_MESSAGE);
             } else {
-                UserProfile user = registeredUsers.get(userId);
                 if (!user.getPassword().equals(password)) {
                     JOptionPane.showMessageDialog(this, "Invalid Password.", "Login Error", JOptionPane.ERROR_MESSAGE);
                 } else {
@@ -254,7 +399,11 @@ public class SkillAnalyzerGUI extends JFrame {
             fieldField.setText("");
         }
 
-        // Clear old list and add current skills
+        refreshSkillList();
+    }
+
+    private void refreshSkillList() {
+        // Clear old list and add current skills, as the profile spells them
         skillListModel.clear();
         for (Skill skill : currentUserProfile.getSkills()) {
             skillListModel.addElement(skill);
@@ -262,10 +411,7 @@ public class SkillAnalyzerGUI extends JFrame {
     }
 
     private void performLogout() {
-        // Save current user data before logging out
-        if (currentUserProfile != null) {
-            UserPersistence.saveUsers(registeredUsers);
-        }
+        // Nothing to save: every change of the current user was journaled when it was made
         currentUserProfile = null;
         skillListModel.clear();
         // Optionally clear analyze report
@@ -294,11 +440,35 @@ public class SkillAnalyzerGUI extends JFrame {
         fieldField.setToolTipText("e.g., Computer Science, Electrical Engineering");
         skillNameField = new JTextField();
         skillNameField.setToolTipText("e.g., Python, Negotiation, Leadership");
+        // Suggest known skill names while typing, so typos do not become separate skills
+        suggestionPopup.setFocusable(false);
+        skillNameField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                requestSuggestions();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                requestSuggestions();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+        skillNameField.addFocusListener(new java.awt.event.FocusAdapter() {
+            @Override
+            public void focusLost(java.awt.event.FocusEvent e) {
+                suggestionPopup.setVisible(false);
+            }
+        });
         skillTypeCombo = new JComboBox<>(new String[]{"Technical", "Soft"});
         proficiencyField = new JTextField();
         proficiencyField.setToolTipText("Enter a number between 1 and 10");
 
         JButton addSkillButton = new JButton("Add Skill");
+        addSkillButton.setName("addSkill");
         addSkillButton.setBackground(ACCENT_COLOR);
         addSkillButton.setForeground(PRIMARY_COLOR);
 
@@ -317,15 +487,18 @@ public class SkillAnalyzerGUI extends JFrame {
         skillJList.setBorder(BorderFactory.createLineBorder(PRIMARY_COLOR, 5));
 
         JButton removeSkillButton = new JButton("Remove Selected Skill");
+        removeSkillButton.setName("removeSkill");
         removeSkillButton.setBackground(new Color(231, 76, 60)); // Red color
         removeSkillButton.setForeground(TEXT_COLOR);
 
 
         JButton nextButton = new JButton("2. Choose Career Path & Analyze");
+        nextButton.setName("next");
         nextButton.setBackground(PRIMARY_COLOR);
         nextButton.setForeground(TEXT_COLOR);
 
         JButton backButton = new JButton("LOGOUT / Back to Login");
+        backButton.setName("logout");
         backButton.setBackground(PRIMARY_COLOR.darker());
         backButton.setForeground(TEXT_COLOR);
 
@@ -355,7 +528,7 @@ public class SkillAnalyzerGUI extends JFrame {
                 Skill skillToRemove = skillListModel.getElementAt(selectedIndex);
                 skillListModel.remove(selectedIndex);
                 // Encapsulation: Remove from the UserProfile object as well
-                currentUserProfile.getSkills().removeIf(s -> s.getName().equals(skillToRemove.getName()) && s.getType().equals(skillToRemove.getType()));
+                userStore.removeSkill(currentUserProfile, skillToRemove.getName(), skillToRemove.getType());
             } else {
                 JOptionPane.showMessageDialog(this, "Please select a skill to remove.", "Selection Required", JOptionPane.WARNING_MESSAGE);
             }
@@ -367,9 +540,11 @@ public class SkillAnalyzerGUI extends JFrame {
                 return;
             }
             // Encapsulation: Update the UserProfile before switching
-            currentUserProfile.setField(fieldField.getText());
-            // File Handling: Save data immediately after profile definition
-            UserPersistence.saveUsers(registeredUsers);
+            String field = fieldField.getText();
+            if (!field.equals(currentUserProfile.getField())) {
+                // File Handling: The store journals the change immediately after profile definition
+                userStore.setField(currentUserProfile, field);
+            }
             cardLayout.show(mainPanel, "Analyze");
         });
 
@@ -379,6 +554,49 @@ public class SkillAnalyzerGUI extends JFrame {
         return profilePanel;
     }
 
+    private void requestSuggestions() {
+        int request = ++suggestionRequest;
+        String typed = skillNameField.getText();
+        if (applyingSuggestion || typed.trim().isEmpty()) {
+            suggestionPopup.setVisible(false);
+            return;
+        }
+        suggestionExecutor.execute(() -> {
+            // Skip keystrokes that a newer one has already replaced
+            if (request != suggestionRequest) {
+                return;
+            }
+            SkillSuggester suggester = skillSuggester;
+            if (suggester == null) {
+                return; // Still being built
+            }
+            List<String> suggestions = suggester.suggest(typed, MAX_SUGGESTIONS);
+            SwingUtilities.invokeLater(() -> showSuggestions(request, typed, suggestions));
+        });
+    }
+
+    private void showSuggestions(int request, String typed, List<String> suggestions) {
+        if (request != suggestionRequest || !skillNameField.isShowing()) {
+            return;
+        }
+        suggestionPopup.setVisible(false);
+        suggestionPopup.removeAll();
+        if (suggestions.isEmpty() || (suggestions.size() == 1 && suggestions.get(0).equalsIgnoreCase(typed.trim()))) {
+            return;
+        }
+        for (String suggestion : suggestions) {
+            JMenuItem item = new JMenuItem(suggestion);
+            item.addActionListener(e -> {
+                applyingSuggestion = true;
+                skillNameField.setText(suggestion);
+                applyingSuggestion = false;
+                skillNameField.requestFocusInWindow();
+            });
+            suggestionPopup.add(item);
+        }
+        suggestionPopup.show(skillNameField, 0, skillNameField.getHeight());
+    }
+
     private void addSkill() {
         try {
             String name = skillNameField.getText().trim();
@@ -390,19 +608,13 @@ public class SkillAnalyzerGUI extends JFrame {
                 return;
             }
 
-            // Check if skill already exists to avoid duplicates
-            boolean exists = currentUserProfile.getSkills().stream()
-                    .anyMatch(s -> s.getName().equalsIgnoreCase(name) && s.getType().equals(type));
-
-            if (exists) {
+            // Encapsulation: Add to the UserProfile object, which rejects duplicates and splits "Java/HTML/CSS"
+            if (!userStore.addSkill(currentUserProfile, name, type, proficiency)) {
                 JOptionPane.showMessageDialog(this, "This skill and type combination is already added.", "Duplicate Skill", JOptionPane.WARNING_MESSAGE);
                 return;
             }
 
-            Skill newSkill = new Skill(name, type, proficiency);
-            // Encapsulation: Add to the UserProfile object
-            currentUserProfile.addSkill(name, type, proficiency);
-            skillListModel.addElement(newSkill);
+            refreshSkillList();
 
             // Clear input fields
             skillNameField.setText("");
@@ -421,7 +633,9 @@ public class SkillAnalyzerGUI extends JFrame {
         selectionPanel.setBackground(PRIMARY_COLOR);
         selectionPanel.setBorder(new EmptyBorder(10, 10, 10, 10));
 
-        pathCombo = new JComboBox<>(careerPaths.keySet().toArray(new String[0]));
+        // Filled and enabled once the catalog has loaded
+        pathCombo = new JComboBox<>();
+        pathCombo.setEnabled(false);
         pathCombo.setToolTipText("Select the career path you want to analyze your skills against");
 
         // Polymorphism: Custom renderer for ComboBox items
@@ -440,7 +654,9 @@ public class SkillAnalyzerGUI extends JFrame {
             }
         });
 
-        JButton analyzeButton = new JButton("Run Skill Analysis");
+        analyzeButton = new JButton("Run Skill Analysis");
+        analyzeButton.setName("analyze");
+        analyzeButton.setEnabled(false);
         analyzeButton.setBackground(ACCENT_COLOR);
         analyzeButton.setForeground(PRIMARY_COLOR);
 
@@ -462,6 +678,7 @@ public class SkillAnalyzerGUI extends JFrame {
                 ";'>3. Analysis Report</h2></html>", SwingConstants.CENTER);
 
         JButton backButton = new JButton("LOGOUT / Back to Login");
+        backButton.setName("logout");
         backButton.setBackground(PRIMARY_COLOR.darker());
         backButton.setForeground(TEXT_COLOR);
         backButton.addActionListener(e -> performLogout());
@@ -484,142 +701,29 @@ public class SkillAnalyzerGUI extends JFrame {
 
     private void runAnalysis() {
         String selectedPath = (String) pathCombo.getSelectedItem();
-        if (selectedPath == null || currentUserProfile.getSkills().isEmpty()) {
+        if (selectedPath == null || currentUserProfile.getSkillCount() == 0) {
             reportArea.setText("Please select a path and add skills first.");
             return;
         }
 
-        String[] requiredSkills = careerPaths.get(selectedPath);
-        String requiredTechSkill = requiredSkills[0].trim();
-        String requiredSoftSkill = requiredSkills[1].trim();
-
-        int matchScore = 0;
-        StringBuilder report = new StringBuilder();
-
-        report.append("Career Match Score:\n");
-        report.append("--------------------------------------------------\n");
-
-        int techProficiency = findSkillProficiency(requiredTechSkill, "Technical");
-        String techStatus = techProficiency >= 7 ? "Met" : "Major Gap";
-        if (techProficiency >= 7) matchScore += 50;
-        report.append(String.format("Technical Skill (%s): Status: %s (Prof: %d/10)\n", requiredTechSkill, techStatus, techProficiency));
-
-        int softProficiency = findSkillProficiency(requiredSoftSkill, "Soft");
-        String softStatus = softProficiency >= 7 ? "Met" : "Major Gap";
-        if (softProficiency >= 7) matchScore += 50;
-        report.append(String.format("Soft Skill (%s): Status: %s (Prof: %d/10)\n", requiredSoftSkill, softStatus, softProficiency));
-
-        report.insert(0, String.format("Overall Match Score: %d%%\n\n", matchScore));
-
-        report.append("\nPersonalized Roadmap:\n");
-        report.append("--------------------------------------------------\n");
-
-        if (techStatus.equals("Major Gap")) {
-            report.append(String.format("-> GAP: %s. Start here: Begin with foundational courses to build a solid understanding.\n", requiredTechSkill));
-        } else {
-            report.append(String.format("-> STRENGTH: %s. Great job! Focus on advanced application and mentoring.\n", requiredTechSkill));
-        }
-
-        if (softStatus.equals("Major Gap")) {
-            report.append(String.format("-> GAP: %s. Practice and apply these skills in team projects or leadership roles.\n", requiredSoftSkill));
-        } else {
-            report.append(String.format("-> STRENGTH: %s. Maintain and leverage this skill in professional settings.\n", requiredSoftSkill));
-        }
-
-        reportArea.setText(report.toString());
-    }
-
-    private int findSkillProficiency(String name, String type) {
-        // Encapsulation: Accessing the skills list via the getter
-        for (Skill skill : currentUserProfile.getSkills()) {
-            if (skill.getName().equalsIgnoreCase(name) && skill.getType().equals(type)) {
-                return skill.getProficiency();
-            }
+        // One catalog for the whole report, even if a reload swaps in a new one meanwhile
+        CareerCatalog catalog = catalogReloader.current();
+        CareerPath path = catalog.getPath(selectedPath);
+        if (path == null) {
+            reportArea.setText("The career path \"" + selectedPath + "\" is no longer in the catalog. Please choose another.");
+            return;
         }
-        return 0; // Skill not found
+        long start = System.nanoTime();
+        UserProfile snapshot = currentUserProfile.copy();
+        reportArea.setText(AnalysisReport.render(analysisCache.analyze(snapshot, catalog, path), analysisCache.recommend(snapshot, catalog, TOP_PATHS)));
+        ANALYSIS_TIME.recordSince(start);
     }
 
     // MAIN METHOD
     public static void main(String[] args) {
+        // Reports event handlers that block the EDT, if enabled
+        EdtWatchdog.installFromProperties();
         // The main thread is responsible for initializing the GUI components
         SwingUtilities.invokeLater(SkillAnalyzerGUI::new);
     }
-
-    // Placeholder classes (assuming they exist in other files)
-    private static class UserProfile {
-        private String fullName;
-        private String password;
-        private String userId;
-        private String field;
-        private java.util.List<Skill> skills = new java.util.ArrayList<>();
-
-        public UserProfile(String fullName, String password, String userId) {
-            this.fullName = fullName;
-            this.password = password;
-            this.userId = userId;
-        }
-
-        public String getFullName() { return fullName; }
-        public String getPassword() { return password; }
-        public String getUserId() { return userId; }
-        public String getField() { return field; }
-        public void setField(String field) { this.field = field; }
-        public java.util.List<Skill> getSkills() { return skills; }
-        public void addSkill(String name, String type, int proficiency) {
-            this.skills.add(new Skill(name, type, proficiency));
-        }
-    }
-
-    private static class Skill {
-        private String name;
-        private String type;
-        private int proficiency;
-
-        public Skill(String name, String type, int proficiency) {
-            this.name = name;
-            this.type = type;
-            this.proficiency = proficiency;
-        }
-
-        public String getName() { return name; }
-        public String getType() { return type; }
-        public int getProficiency() { return proficiency; }
-
-        @Override
-        public String toString() {
-            return String.format("%s (%s): %d/10", name, type, proficiency);
-        }
-    }
-
-    private static class UserPersistence {
-        // Placeholder for file saving/loading logic
-        public static void saveUsers(Map<String, UserProfile> users) {
-            // Simulate saving to file
-            System.out.println("Saving " + users.size() + " users...");
-        }
-        public static Map<String, UserProfile> loadUsers() {
-            // Simulate loading from file
-            System.out.println("Loading users...");
-            return new HashMap<>();
-        }
-    }
-
-    private static class CareerPathLoader {
-        public static Map<String, String[]> loadCareerPaths() {
-            Map<String, String[]> paths = new HashMap<>();
-            paths.put("Data Scientist", new String[]{"Python", "Communication"});
-            paths.put("Software Engineer", new String[]{"Java", "Problem Solving"});
-            paths.put("Robotics Engineer", new String[]{"Control Systems", "Teamwork"});
-            paths.put("Cybersecurity Analyst", new String[]{"Networking", "Critical Thinking"});
-            paths.put("AI Engineer", new String[]{"Deep Learning", "Communication"});
-            paths.put("Machine Learning Engineer", new String[]{"Deep Learning", "Communication"});
-            paths.put("Application Developer", new String[]{"Java/HTML/CSS", "problem Solving"});
-            paths.put("Full Stack Web Developer", new String[]{"JavaScript", "Teamwork"});
-            paths.put("Automation Engineer", new String[]{"Control Systems", "Teamwork"});
-            paths.put("IOT (Internet of Things) Engineer", new String[]{"Embedded Systems", "Critical Thinking"});
-            paths.put("UX Designer", new String[]{"Figma", "Empathy"});
-            paths.put("Marketing Specialist", new String[]{"SEO", "Creativity"});
-            return paths;
-        }
-    }
 }
\ No newline at end of file
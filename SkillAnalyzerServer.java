@@ -0,0 +1,480 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Headless multi-user service: the GUI's register, login, profile and analyze actions over HTTP with JSON replies.
+// Every request runs on its own virtual thread, so thousands of concurrent sessions cost a few KB each instead of
+// a platform thread each. Parameters come from the query string or a form-encoded body; after login, pass the
+// token as "Authorization: Bearer <token>". Listens on localhost only unless a host is given.
+//
+// SkillAnalyzerServer [port] [host]
+//
+//   POST   /api/register  fullName, password          -> 201 {"userId", "fullName"}
+//   POST   /api/login     userId, password            -> {"token", "userId", "fullName"}
+//   POST   /api/logout
+//   GET    /api/profile                               -> {"userId", "fullName", "field", "skills"}
+//   POST   /api/skills    name, type, proficiency     -> 201 profile (409 if already added)
+//   DELETE /api/skills    name, type                  -> profile (404 if not found)
+//   POST   /api/field     field                       -> profile
+//   GET    /api/paths                                 -> {"careerPaths"}
+//   GET    /api/analyze   path, [top]                 -> the analysis report as JSON
+//   GET    /api/stats     [minScore], [gaps], [skills] -> {"users", "skills", "careerPaths"} population aggregates
+//                                                        (503 until they have been built after startup)
+public class SkillAnalyzerServer {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int TOP_PATHS = 5;
+    // Defaults of /api/stats: a user meets a path when they meet all of its requirements
+    private static final int STATS_MIN_SCORE = 100;
+    private static final int STATS_GAPS = 5;
+    private static final int STATS_SKILLS = 50;
+    // Sessions idle for longer than this are logged out
+    private static final long SESSION_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+    private static final Metrics.Latency LOGIN_TIME = Metrics.latency("login");
+    private static final Metrics.Counter LOGIN_FAILURES = Metrics.counter("login.failures");
+    private static final Metrics.Latency ANALYSIS_TIME = Metrics.latency("analysis");
+    // Users whose latest analysis results are kept
+    private static final int ANALYSIS_CACHE_SIZE = 10_000;
+
+    // Thrown by a handler to answer with an error status and {"error": message}
+    private static class ApiException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private static class Session {
+        final String userId;
+        volatile long lastSeen = System.currentTimeMillis();
+
+        Session(String userId) {
+            this.userId = userId;
+        }
+    }
+
+    // One request: its parameters and, once authenticated, its user
+    private static class Request {
+        final HttpExchange exchange;
+        final Map<String, String> params;
+
+        Request(HttpExchange exchange, Map<String, String> params) {
+            this.exchange = exchange;
+            this.params = params;
+        }
+
+        String param(String name) throws ApiException {
+            String value = params.get(name);
+            if (value == null || value.trim().isEmpty()) {
+                throw new ApiException(400, "Missing parameter: " + name);
+            }
+            return value.trim();
+        }
+    }
+
+    private interface Handler {
+        // Returns the JSON reply body; status 200 unless the handler sets another one
+        String handle(Request request) throws ApiException, IOException;
+    }
+
+    private final UserStore userStore;
+    private final CatalogReloader catalogReloader;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Repeated analyses of an unchanged profile against the same catalog are served from here
+    private final AnalysisCache analysisCache = new AnalysisCache(ANALYSIS_CACHE_SIZE);
+    private final SecureRandom random = new SecureRandom();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public SkillAnalyzerServer(UserStore userStore, CatalogReloader catalogReloader) {
+        this.userStore = userStore;
+        this.catalogReloader = catalogReloader;
+        catalogReloader.addListener(analysisCache::retainCatalog);
+    }
+
+    public synchronized void start(InetSocketAddress address) throws IOException {
+        // Small JSON replies: without TCP_NODELAY every exchange waits ~40 ms for a delayed ACK.
+        // Read once when the first server is created, so it must be set before that.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        // A deep accept backlog, so bursts of new connections queue instead of being refused
+        server = HttpServer.create(address, 4096);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        route("/api/register", "POST", this::register);
+        route("/api/login", "POST", this::login);
+        route("/api/logout", "POST", this::logout);
+        route("/api/profile", "GET", request -> profileJson(authenticate(request)));
+        route("/api/skills", null, this::skills);
+        route("/api/field", "POST", this::field);
+        route("/api/paths", "GET", this::paths);
+        route("/api/analyze", "GET", this::analyze);
+        route("/api/stats", "GET", this::stats);
+        server.start();
+        catalogReloader.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(1);
+            executor.close();
+            catalogReloader.stop();
+            server = null;
+        }
+    }
+
+    // Logs out sessions that have been idle too long
+    public void expireSessions() {
+        long cutoff = System.currentTimeMillis() - SESSION_TIMEOUT_MILLIS;
+        sessions.values().removeIf(session -> session.lastSeen < cutoff);
+    }
+
+    private String register(Request request) throws ApiException, IOException {
+        String fullName = request.param("fullName");
+        String password = request.params.getOrDefault("password", "");
+        if (password.length() < 8) {
+            throw new ApiException(400, "Password must be at least 8 characters long.");
+        }
+        UserProfile user = userStore.register(fullName, password);
+        request.exchange.getResponseHeaders().set("Location", "/api/profile");
+        StringBuilder json = new StringBuilder("{\"userId\": ");
+        Json.quote(json, user.getUserId()).append(", \"fullName\": ");
+        return Json.quote(json, user.getFullName()).append('}').toString();
+    }
+
+    private String login(Request request) throws ApiException {
+        String userId = request.param("userId");
+        long start = System.nanoTime();
+        UserProfile user = userStore.find(userId);
+        boolean valid = user != null && user.getPassword().equals(request.params.get("password"));
+        LOGIN_TIME.recordSince(start);
+        if (!valid) {
+            LOGIN_FAILURES.increment();
+        }
+        if (user == null) {
+            throw new ApiException(404, "User ID not found.");
+        }
+        if (!valid) {
+            throw new ApiException(401, "Invalid Password.");
+        }
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, new Session(user.getUserId()));
+
+        StringBuilder json = new StringBuilder("{\"token\": ");
+        Json.quote(json, token).append(", \"userId\": ");
+        Json.quote(json, user.getUserId()).append(", \"fullName\": ");
+        return Json.quote(json, user.getFullName()).append('}').toString();
+    }
+
+    private String logout(Request request) throws ApiException {
+        String token = token(request);
+        if (token == null || sessions.remove(token) == null) {
+            throw new ApiException(401, "Not logged in.");
+        }
+        return "{\"loggedOut\": true}";
+    }
+
+    private String skills(Request request) throws ApiException {
+        UserProfile user = authenticate(request);
+        String name = request.param("name");
+        String type = skillType(request.param("type"));
+        switch (request.exchange.getRequestMethod()) {
+            case "POST":
+                int proficiency;
+                try {
+                    proficiency = Integer.parseInt(request.param("proficiency"));
+                } catch (NumberFormatException e) {
+                    throw new ApiException(400, "Proficiency must be a number.");
+                }
+                if (proficiency < 1 || proficiency > 10) {
+                    throw new ApiException(400, "Please enter a valid skill name and proficiency (1-10).");
+                }
+                if (!userStore.addSkill(user, name, type, proficiency)) {
+                    throw new ApiException(409, "This skill and type combination is already added.");
+                }
+                request.exchange.getResponseHeaders().set("Location", "/api/profile");
+                return profileJson(user);
+            case "DELETE":
+                if (!userStore.removeSkill(user, name, type)) {
+                    throw new ApiException(404, "Skill not found.");
+                }
+                return profileJson(user);
+            default:
+                throw new ApiException(405, "Use POST or DELETE.");
+        }
+    }
+
+    private String field(Request request) throws ApiException {
+        UserProfile user = authenticate(request);
+        String field = request.params.getOrDefault("field", "").trim();
+        if (!field.equals(user.getField())) {
+            userStore.setField(user, field);
+        }
+        return profileJson(user);
+    }
+
+    private String paths(Request request) {
+        StringBuilder json = new StringBuilder("{\"careerPaths\": [");
+        boolean first = true;
+        for (String name : catalogReloader.current().getPaths().keySet()) {
+            Json.quote(json.append(first ? "" : ", "), name);
+            first = false;
+        }
+        return json.append("]}").toString();
+    }
+
+    private String analyze(Request request) throws ApiException {
+        UserProfile user = authenticate(request);
+        String pathName = request.param("path");
+        int top = TOP_PATHS;
+        if (request.params.containsKey("top")) {
+            try {
+                top = Math.max(0, Math.min(100, Integer.parseInt(request.params.get("top"))));
+            } catch (NumberFormatException e) {
+                throw new ApiException(400, "top must be a number.");
+            }
+        }
+        // Same rules and the same single catalog snapshot per report as the GUI's runAnalysis
+        UserProfile snapshot = user.copy();
+        if (snapshot.getSkillCount() == 0) {
+            throw new ApiException(400, "Please add skills first.");
+        }
+        CareerCatalog catalog = catalogReloader.current();
+        CareerPath path = catalog.getPath(pathName);
+        if (path == null) {
+            throw new ApiException(404, "The career path \"" + pathName + "\" is not in the catalog.");
+        }
+        long start = System.nanoTime();
+        String report = AnalysisReport.renderJson(analysisCache.analyze(snapshot, catalog, path), analysisCache.recommend(snapshot, catalog, top));
+        ANALYSIS_TIME.recordSince(start);
+        return report;
+    }
+
+    // Dashboard view of the whole population, cheap enough to poll every second: how widely each skill is held
+    // and at which proficiency, and per career path the share of users with at least minScore and its most
+    // common gaps
+    private String stats(Request request) throws ApiException {
+        authenticate(request);
+        int minScore = intParam(request, "minScore", STATS_MIN_SCORE, 0, 100);
+        int gaps = intParam(request, "gaps", STATS_GAPS, 0, 100);
+        int skills = intParam(request, "skills", STATS_SKILLS, 0, 10_000);
+        PopulationStats stats = userStore.stats();
+        if (stats == null) {
+            throw new ApiException(503, "Population stats are not ready yet, try again shortly.");
+        }
+        List<PopulationStats.PathStats> paths = stats.getPathStats(catalogReloader.current(), minScore, gaps);
+
+        StringBuilder json = new StringBuilder("{\"users\": ").append(stats.getUserCount()).append(", \"skills\": [");
+        List<PopulationStats.SkillDistribution> distributions = stats.getSkillDistributions(skills);
+        for (int i = 0; i < distributions.size(); i++) {
+            PopulationStats.SkillDistribution skill = distributions.get(i);
+            json.append(i == 0 ? "{\"name\": " : ", {\"name\": ");
+            Json.quote(json, skill.getName()).append(", \"type\": ");
+            Json.quote(json, skill.getType()).append(", \"users\": ").append(skill.getUserCount())
+                    .append(", \"meanProficiency\": ").append(Math.round(skill.getMeanProficiency() * 100) / 100.0)
+                    .append(", \"proficiencies\": [");
+            for (int p = 1; p <= 10; p++) {
+                json.append(p == 1 ? "" : ", ").append(skill.getCount(p));
+            }
+            json.append("]}");
+        }
+        json.append("], \"careerPaths\": [");
+        for (int i = 0; i < paths.size(); i++) {
+            PopulationStats.PathStats path = paths.get(i);
+            json.append(i == 0 ? "{\"careerPath\": " : ", {\"careerPath\": ");
+            Json.quote(json, path.getCareerPath()).append(", \"minScore\": ").append(minScore)
+                    .append(", \"users\": ").append(path.getReadyCount())
+                    .append(", \"percent\": ").append(Math.round(path.getReadyPercent() * 10) / 10.0)
+                    .append(", \"gaps\": [");
+            List<PopulationStats.Gap> pathGaps = path.getGaps();
+            for (int g = 0; g < pathGaps.size(); g++) {
+                PopulationStats.Gap gap = pathGaps.get(g);
+                json.append(g == 0 ? "{\"name\": " : ", {\"name\": ");
+                Json.quote(json, gap.getName()).append(", \"type\": ");
+                Json.quote(json, gap.getType()).append(", \"required\": ").append(gap.getMinProficiency())
+                        .append(", \"users\": ").append(gap.getUserCount())
+                        .append(", \"percent\": ").append(Math.round(gap.getUserCount() * 1000.0 / Math.max(1, path.getUserCount())) / 10.0)
+                        .append('}');
+            }
+            json.append("]}");
+        }
+        return json.append("]}").toString();
+    }
+
+    // An optional whole-number parameter, limited to min-max
+    private static int intParam(Request request, String name, int defaultValue, int min, int max) throws ApiException {
+        if (!request.params.containsKey(name)) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(min, Math.min(max, Integer.parseInt(request.params.get(name).trim())));
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, name + " must be a number.");
+        }
+    }
+
+    private UserProfile authenticate(Request request) throws ApiException {
+        String token = token(request);
+        Session session = token == null ? null : sessions.get(token);
+        if (session == null) {
+            throw new ApiException(401, "Not logged in.");
+        }
+        session.lastSeen = System.currentTimeMillis();
+        UserProfile user = userStore.find(session.userId);
+        if (user == null) {
+            sessions.remove(token);
+            throw new ApiException(401, "User no longer exists.");
+        }
+        return user;
+    }
+
+    private static String token(Request request) {
+        String header = request.exchange.getRequestHeaders().getFirst("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            return header.substring("Bearer ".length()).trim();
+        }
+        return null;
+    }
+
+    private static String skillType(String type) throws ApiException {
+        if (type.equalsIgnoreCase("Technical")) {
+            return "Technical";
+        }
+        if (type.equalsIgnoreCase("Soft")) {
+            return "Soft";
+        }
+        throw new ApiException(400, "Skill type must be Technical or Soft.");
+    }
+
+    private static String profileJson(UserProfile user) {
+        // One snapshot, so the field and skills belong together
+        UserProfile snapshot = user.copy();
+        StringBuilder json = new StringBuilder("{\"userId\": ");
+        Json.quote(json, snapshot.getUserId()).append(", \"fullName\": ");
+        Json.quote(json, snapshot.getFullName()).append(", \"field\": ");
+        Json.quote(json, snapshot.getField()).append(", \"skills\": [");
+        List<Skill> skills = snapshot.getSkills();
+        for (int i = 0; i < skills.size(); i++) {
+            Skill skill = skills.get(i);
+            json.append(i == 0 ? "" : ", ").append("{\"name\": ");
+            Json.quote(json, skill.getName()).append(", \"type\": ");
+            Json.quote(json, skill.getType()).append(", \"proficiency\": ").append(skill.getProficiency()).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private void route(String context, String method, Handler handler) {
+        server.createContext(context, exchange -> {
+            int status = 200;
+            String body;
+            try {
+                if (method != null && !method.equals(exchange.getRequestMethod())) {
+                    throw new ApiException(405, "Use " + method + ".");
+                }
+                body = handler.handle(new Request(exchange, params(exchange)));
+                if (exchange.getResponseHeaders().containsKey("Location")) {
+                    status = 201;
+                }
+            } catch (ApiException e) {
+                status = e.status;
+                body = Json.error(e.getMessage());
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error handling " + exchange.getRequestURI() + ": " + e);
+                status = 500;
+                body = Json.error("Internal error.");
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+    }
+
+    // Query string and form-encoded body parameters; body values win
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream in = exchange.getRequestBody()) {
+            parseForm(new String(in.readAllBytes(), StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    // MAIN METHOD: the headless counterpart of SkillAnalyzerGUI.main
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        InetAddress host = args.length > 1 ? InetAddress.getByName(args[1]) : InetAddress.getLoopbackAddress();
+
+        CatalogReloader catalogReloader = new CatalogReloader(Paths.get(CareerPathLoader.CAREER_PATH_FILE), CareerPathLoader.loadCatalog());
+        UserPersistence.open(); // Profiles are read on demand at login
+        UserPersistence.getPopulationStats(); // Starts building the dashboard stats in the background
+        Metrics.startReporting(); // JMX, plus the periodic log if configured
+        SkillAnalyzerServer service = new SkillAnalyzerServer(new PersistentUserStore(), catalogReloader);
+        service.start(new InetSocketAddress(host, port));
+
+        Thread expiry = Thread.ofVirtual().name("session-expiry").start(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(60_000);
+                    service.expireSessions();
+                }
+            } catch (InterruptedException e) {
+                // Stopped
+            }
+        });
+        // Stop taking requests, then write out any changes still queued
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            expiry.interrupt();
+            service.stop();
+            UserPersistence.close();
+        }, "server-shutdown"));
+
+        System.out.println("Skill Analyzer service listening on http://" + host.getHostAddress() + ":" + service.getAddress().getPort() + "/api/");
+    }
+}
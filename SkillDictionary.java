@@ -0,0 +1,242 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Canonical skill dictionary: interns skill names and types into small integer IDs so matching compares ints
+// instead of strings. Names are normalized (trimmed, whitespace collapsed, hyphens and underscores read as spaces,
+// case-folded) and aliases from skill_aliases.txt resolve to their canonical skill, so "JS", "javascript" and
+// "ECMAScript" share one ID, as do "Machine-Learning" and "machine_learning". Free text naming several skills
+// ("Java/HTML/CSS") is split by names()/keys().
+// A skill key packs (name ID, type ID) into one int.
+public class SkillDictionary {
+
+    public static final String ALIAS_FILE = "skill_aliases.txt";
+
+    // Low bits of a skill key hold the type ID
+    private static final int TYPE_BITS = 3;
+    private static final int MAX_TYPES = 1 << TYPE_BITS;
+
+    // Normalized name or alias -> name ID
+    private static final Map<String, Integer> nameIds = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[64];
+    private static int nameCount;
+
+    private static final Map<String, Integer> typeIds = new ConcurrentHashMap<>();
+    private static final String[] types = new String[MAX_TYPES];
+    private static int typeCount;
+
+    static {
+        internType("Technical");
+        internType("Soft");
+        // Before any other name is interned, so an alias never gets an ID of its own
+        loadAliases(Paths.get(ALIAS_FILE));
+    }
+
+    // Returns the ID of the name, assigning the next free one if it has not been seen before
+    public static int intern(String name) {
+        String normalized = normalize(name);
+        Integer id = nameIds.get(normalized);
+        return id != null ? id : assign(name.trim().replaceAll("\\s+", " "), normalized);
+    }
+
+    private static synchronized int assign(String name, String normalized) {
+        Integer id = nameIds.get(normalized);
+        if (id != null) {
+            return id;
+        }
+        if (nameCount == names.length) {
+            names = Arrays.copyOf(names, nameCount * 2);
+        }
+        // First spelling seen is the one reported back
+        names[nameCount] = name;
+        nameIds.put(normalized, nameCount);
+        return nameCount++;
+    }
+
+    // Returns the ID of the name or alias, or -1 if it was never interned
+    public static int lookup(String name) {
+        Integer id = nameIds.get(normalize(name));
+        return id == null ? -1 : id;
+    }
+
+    // Name IDs of the skills in free text: a known name or alias as a whole, otherwise each part of a
+    // composite entry split on '/' or ','. Parts naming the same skill are reported once.
+    public static int[] nameIds(String text) {
+        return nameIds(text, true);
+    }
+
+    // Without interning, unknown parts are left out
+    private static int[] nameIds(String text, boolean intern) {
+        Integer whole = nameIds.get(normalize(text));
+        if (whole != null) {
+            return new int[]{whole};
+        }
+        String[] parts = text.split("[/,]");
+        int[] ids = new int[parts.length];
+        int count = 0;
+        for (String part : parts) {
+            if (!part.trim().isEmpty()) {
+                int id = intern ? intern(part) : lookup(part);
+                if (id >= 0 && !contains(ids, count, id)) {
+                    ids[count++] = id;
+                }
+            }
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    // Canonical names of the skills in free text, see nameIds
+    public static String[] names(String text) {
+        int[] ids = nameIds(text);
+        String[] canonical = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            canonical[i] = nameOf(ids[i]);
+        }
+        return canonical;
+    }
+
+    // Makes alias another name for the canonical skill; false if the alias already names a different skill
+    public static synchronized boolean addAlias(String canonical, String alias) {
+        int id = intern(canonical);
+        Integer existing = nameIds.putIfAbsent(normalize(alias), id);
+        return existing == null || existing == id;
+    }
+
+    // Reads "Canonical Name: alias, alias, ..." lines; '#' starts a comment line
+    public static void loadAliases(Path file) {
+        try (BufferedReader br = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.trim().isEmpty() || line.trim().startsWith("#")) {
+                    continue;
+                }
+                int colon = line.indexOf(':');
+                if (colon <= 0) {
+                    System.err.println("Skipping skill alias line without 'Skill: aliases': " + line);
+                    continue;
+                }
+                String canonical = line.substring(0, colon).trim();
+                intern(canonical);
+                for (String alias : line.substring(colon + 1).split(",")) {
+                    if (!alias.trim().isEmpty() && !addAlias(canonical, alias)) {
+                        System.err.println("Skill alias '" + alias.trim() + "' already names " + nameOf(lookup(alias)) + ", not " + canonical);
+                    }
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // Aliases are optional
+        } catch (IOException e) {
+            System.err.println("Error reading " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Every normalized name and alias with the ID it stands for, as of now
+    public static Map<String, Integer> spellings() {
+        return new HashMap<>(nameIds);
+    }
+
+    public static boolean isType(String type) {
+        return typeIds.containsKey(type);
+    }
+
+    public static String nameOf(int id) {
+        return names[id];
+    }
+
+    // Number of distinct skills (aliases not counted)
+    public static synchronized int size() {
+        return nameCount;
+    }
+
+    public static synchronized int internType(String type) {
+        Integer id = typeIds.get(type);
+        if (id != null) {
+            return id;
+        }
+        if (typeCount == MAX_TYPES) {
+            throw new IllegalArgumentException("Too many skill types, cannot add " + type);
+        }
+        types[typeCount] = type;
+        typeIds.put(type, typeCount);
+        return typeCount++;
+    }
+
+    // Key for a (name, type) pair, interning both; the name is one skill, aliases resolved
+    public static int key(String name, String type) {
+        return (intern(name) << TYPE_BITS) | internType(type);
+    }
+
+    // Keys for the skills named in free text, split and resolved like nameIds
+    public static int[] keys(String text, String type) {
+        return toKeys(nameIds(text, true), internType(type));
+    }
+
+    // Same, but only for skills already known; for lookups that must not grow the dictionary
+    public static int[] lookupKeys(String text, String type) {
+        Integer typeId = typeIds.get(type);
+        return typeId == null ? new int[0] : toKeys(nameIds(text, false), typeId);
+    }
+
+    private static int[] toKeys(int[] nameIds, int typeId) {
+        for (int i = 0; i < nameIds.length; i++) {
+            nameIds[i] = (nameIds[i] << TYPE_BITS) | typeId;
+        }
+        return nameIds;
+    }
+
+    // Key for a (name, type) pair, or -1 if either was never interned (so no profile can hold it)
+    public static int lookupKey(String name, String type) {
+        int nameId = lookup(name);
+        Integer typeId = typeIds.get(type);
+        return nameId < 0 || typeId == null ? -1 : (nameId << TYPE_BITS) | typeId;
+    }
+
+    public static int nameIdOf(int key) {
+        return key >>> TYPE_BITS;
+    }
+
+    // The name and type a key was built from
+    public static String nameOfKey(int key) {
+        return names[key >>> TYPE_BITS];
+    }
+
+    public static String typeOfKey(int key) {
+        return types[key & (MAX_TYPES - 1)];
+    }
+
+    // Trimmed, single spaces, hyphens and underscores as spaces, case-folded
+    public static String normalize(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        boolean space = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c) || c == '-' || c == '_') {
+                space = normalized.length() > 0;
+            } else {
+                if (space) {
+                    normalized.append(' ');
+                    space = false;
+                }
+                normalized.append(c);
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
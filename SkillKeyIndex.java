@@ -0,0 +1,116 @@
+import java.util.Arrays;
+
+// Open-addressing hash map from skill key to position, with primitive int keys and values.
+// Skill keys are never negative, so -1 marks an empty slot and a missing key.
+public class SkillKeyIndex {
+
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    public SkillKeyIndex() {
+        this(8);
+    }
+
+    public SkillKeyIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // The keys currently present, in no particular order
+    public int[] keys() {
+        int[] present = new int[size];
+        int count = 0;
+        for (int key : keys) {
+            if (key != EMPTY) {
+                present[count++] = key;
+            }
+        }
+        return present;
+    }
+
+    // Returns the value stored for key, or -1
+    public int get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = slotOf(key, mask); ; slot = (slot + 1) & mask) {
+            int current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == EMPTY) {
+                return EMPTY;
+            }
+        }
+    }
+
+    public void put(int key, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            size++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    // Removes key and returns its value, or -1 if it was not present
+    public int remove(int key) {
+        int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return EMPTY;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int removed = values[slot];
+        size--;
+
+        // Backward-shift deletion: pull later entries of the probe chain into the gap, no tombstones needed
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slotOf(keys[next], mask);
+            // Move the entry if its home slot is not between the gap and its current slot (cyclically)
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        return removed;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int slotOf(int key, int mask) {
+        // Fibonacci hashing spreads consecutive IDs across the table
+        return (key * 0x9E3779B9 >>> 16) & mask;
+    }
+}
@@ -0,0 +1,250 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// As-you-type suggestions of known skill names, tolerant of typos.
+// Every name and alias in SkillDictionary is indexed by its trigrams (padded at the start, so a one or two letter
+// prefix already has a trigram). A query only visits the postings of its own few trigrams, keeps the best
+// candidates by shared trigram count and re-ranks those by exact, prefix, word-prefix or edit-distance match,
+// so its cost follows the number of names sharing a trigram with the query, not the vocabulary size.
+// New skills are picked up from SkillDictionary before every query.
+public class SkillSuggester {
+
+    // Candidates re-ranked per query (a few more when names tie)
+    private static final int CANDIDATES = 64;
+    // Longer names rank as this long when picking candidates
+    private static final int MAX_LENGTH = 64;
+
+    // Ranks of a match, best first
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int WORD_PREFIX = 2;
+    private static final int FUZZY = 3;
+
+    // Entries containing one trigram
+    private static class Posting {
+        int[] entries = new int[4];
+        int size;
+
+        void add(int entry) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            entries[size++] = entry;
+        }
+    }
+
+    // Entry e: a normalized spelling and the skill ID it stands for (negative for a local name); guarded by this
+    private String[] texts = new String[1024];
+    private int[] ids = new int[1024];
+    private int entryCount;
+    private final Set<String> indexed = new HashSet<>();
+    private final Map<Long, Posting> postings = new HashMap<>();
+    // SkillDictionary IDs below this are indexed
+    private int indexedNames;
+    // Names only this suggester knows about: local ID -1 - i is localNames[i]
+    private final List<String> localNames = new ArrayList<>();
+    // Shared trigram count per entry, reset after each query
+    private int[] counts = new int[1024];
+
+    public SkillSuggester() {
+        indexedNames = SkillDictionary.size();
+        for (Map.Entry<String, Integer> spelling : SkillDictionary.spellings().entrySet()) {
+            index(spelling.getKey(), spelling.getValue());
+        }
+    }
+
+    // Makes names known (e.g. the skills of profiles not loaded yet) to this suggester only. They are split like
+    // SkillDictionary.nameIds splits them, but never interned: what the dictionary holds, and so how a catalog
+    // loaded at the same time splits its requirements, must not depend on which of the two ran first.
+    public synchronized void addNames(Collection<String> names) {
+        for (String name : names) {
+            if (SkillDictionary.isType(name) || name.trim().isEmpty() || SkillDictionary.lookup(name) >= 0) {
+                continue;
+            }
+            for (String part : name.split("[/,]")) {
+                String text = SkillDictionary.normalize(part);
+                if (!text.isEmpty() && SkillDictionary.lookup(part) < 0 && !indexed.contains(text)) {
+                    localNames.add(part.trim().replaceAll("\\s+", " "));
+                    index(text, -localNames.size());
+                }
+            }
+        }
+    }
+
+    public synchronized int size() {
+        catchUp();
+        return entryCount;
+    }
+
+    // Up to limit canonical skill names for what the user has typed so far, best first
+    public synchronized List<String> suggest(String typed, int limit) {
+        catchUp();
+        String query = SkillDictionary.normalize(typed);
+        List<String> suggestions = new ArrayList<>(limit);
+        if (query.isEmpty() || limit <= 0) {
+            return suggestions;
+        }
+
+        // Count shared trigrams for every entry in the query's postings
+        long[] grams = grams(query, false);
+        int[] touched = new int[64];
+        int touchedCount = 0;
+        for (long gram : grams) {
+            Posting posting = postings.get(gram);
+            if (posting == null) {
+                continue;
+            }
+            for (int i = 0; i < posting.size; i++) {
+                int entry = posting.entries[i];
+                if (counts[entry]++ == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = entry;
+                }
+            }
+        }
+
+        // Keep the candidates sharing the most trigrams, shorter names first on ties: find the lowest count
+        // that still fits, then fill up from that count by length (both counting sorts, no comparisons)
+        int[] perCount = new int[grams.length + 2];
+        for (int i = 0; i < touchedCount; i++) {
+            perCount[counts[touched[i]]]++;
+        }
+        int threshold = grams.length;
+        int above = 0;
+        while (threshold > 1 && above + perCount[threshold] < CANDIDATES) {
+            above += perCount[threshold--];
+        }
+        int[] perLength = new int[MAX_LENGTH + 2];
+        for (int i = 0; i < touchedCount; i++) {
+            if (counts[touched[i]] == threshold) {
+                perLength[Math.min(texts[touched[i]].length(), MAX_LENGTH)]++;
+            }
+        }
+        int maxLength = 0;
+        for (int room = CANDIDATES - above; maxLength < MAX_LENGTH && room > perLength[maxLength]; maxLength++) {
+            room -= perLength[maxLength];
+        }
+        List<int[]> best = new ArrayList<>(CANDIDATES * 2);
+        for (int i = 0; i < touchedCount; i++) {
+            int entry = touched[i];
+            if (counts[entry] > threshold
+                    || (counts[entry] == threshold && Math.min(texts[entry].length(), MAX_LENGTH) <= maxLength)) {
+                best.add(new int[]{entry, counts[entry]});
+            }
+            counts[entry] = 0;
+        }
+
+        // Re-rank: exact, prefix, prefix of a later word, then close by edit distance; drop the rest
+        List<int[]> ranked = new ArrayList<>(best.size());
+        for (int[] candidate : best) {
+            int rank = rank(query, texts[candidate[0]]);
+            if (rank >= 0) {
+                ranked.add(new int[]{candidate[0], rank, candidate[1]});
+            }
+        }
+        ranked.sort((a, b) -> a[1] != b[1] ? Integer.compare(a[1], b[1])
+                : a[2] != b[2] ? Integer.compare(b[2], a[2])
+                : Integer.compare(texts[a[0]].length(), texts[b[0]].length()));
+
+        // An alias and its canonical name both match: suggest the skill once, by its canonical name
+        Set<Integer> seen = new HashSet<>();
+        for (int[] match : ranked) {
+            int id = ids[match[0]];
+            if (seen.add(id)) {
+                suggestions.add(id >= 0 ? SkillDictionary.nameOf(id) : localNames.get(-1 - id));
+                if (suggestions.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return suggestions;
+    }
+
+    // Indexes skills interned since the last query
+    private void catchUp() {
+        int known = SkillDictionary.size();
+        for (int id = indexedNames; id < known; id++) {
+            index(SkillDictionary.normalize(SkillDictionary.nameOf(id)), id);
+        }
+        indexedNames = known;
+    }
+
+    private void index(String text, int id) {
+        if (!indexed.add(text)) {
+            return;
+        }
+        if (entryCount == texts.length) {
+            texts = Arrays.copyOf(texts, entryCount * 2);
+            ids = Arrays.copyOf(ids, entryCount * 2);
+            counts = Arrays.copyOf(counts, entryCount * 2);
+        }
+        int entry = entryCount++;
+        texts[entry] = text;
+        ids[entry] = id;
+        for (long gram : grams(text, true)) {
+            postings.computeIfAbsent(gram, g -> new Posting()).add(entry);
+        }
+    }
+
+    // Distinct trigrams of "\0\0text" (and a trailing "\0" for indexed names; a query may still be unfinished)
+    private static long[] grams(String text, boolean complete) {
+        String padded = "\0\0" + text + (complete ? "\0" : "");
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add((long) padded.charAt(i) << 32 | (long) padded.charAt(i + 1) << 16 | padded.charAt(i + 2));
+        }
+        long[] result = new long[grams.size()];
+        int i = 0;
+        for (long gram : grams) {
+            result[i++] = gram;
+        }
+        return result;
+    }
+
+    // How well text matches the typed query, or -1 for no match
+    private static int rank(String query, String text) {
+        if (text.equals(query)) {
+            return EXACT;
+        }
+        if (text.startsWith(query)) {
+            return PREFIX;
+        }
+        if (text.contains(" " + query)) {
+            return WORD_PREFIX;
+        }
+        // The user may still be typing: compare against a prefix of the name of about the query's length
+        int allowed = query.length() <= 2 ? 0 : query.length() <= 5 ? 1 : 2;
+        String head = text.substring(0, Math.min(text.length(), query.length()));
+        String longerHead = text.substring(0, Math.min(text.length(), query.length() + 1));
+        return allowed > 0 && Math.min(distance(query, head), distance(query, longerHead)) <= allowed ? FUZZY : -1;
+    }
+
+    // Optimal string alignment distance: insertions, deletions, substitutions and adjacent swaps
+    private static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
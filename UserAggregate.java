@@ -0,0 +1,17 @@
+// Per-user data kept over every registered user (CandidateIndex, PopulationStats). UserPersistence builds one
+// with a single pass over the store and then passes it every recorded change.
+public interface UserAggregate {
+
+    // Counts every skill of the profile, replacing whatever was counted for that user before
+    void addUser(UserProfile user);
+
+    // Same, unless the user has been counted already
+    void addUserIfAbsent(UserProfile user);
+
+    // Same splitting and aliases as UserProfile.addSkill; ignored for a user who is not counted
+    void addSkill(String userId, String name, String type, int proficiency);
+
+    void removeSkill(String userId, String name, String type);
+
+    void removeUser(String userId);
+}
@@ -0,0 +1,175 @@
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Loaded profiles with write-back of changed ones. There is never more than one live profile per user: every
+// profile handed out stays registered (weakly) for as long as anyone still holds it, so a request that kept a
+// profile after it was evicted gets that same profile from the next lookup, and no change made through it is lost.
+// Up to capacity clean profiles are also held strongly, evicted in second-chance (CLOCK) order. Changed (dirty)
+// profiles are pinned until a write-back has stored them in the snapshot; their changes are already in the journal.
+// get() takes no lock; everything else synchronizes on the cache, which never calls out while holding it.
+public class UserCache {
+
+    // Registration of one live profile; cleared by the collector once nobody holds the profile any more
+    private static class Entry extends WeakReference<UserProfile> {
+        final String userId;
+        // Set on each hit, cleared as the clock hand passes
+        volatile boolean used;
+        // Strong reference while the entry is in the kept queue; guarded by the cache
+        UserProfile keptUser;
+
+        Entry(UserProfile user, ReferenceQueue<UserProfile> queue) {
+            super(user, queue);
+            this.userId = user.getUserId();
+        }
+    }
+
+    private final int capacity;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReferenceQueue<UserProfile> collected = new ReferenceQueue<>();
+    // Guarded by this
+    private final ArrayDeque<Entry> kept = new ArrayDeque<>();
+    private Map<String, UserProfile> dirty = new HashMap<>();
+    // Profiles handed to the running write-back, still pinned until it completes
+    private Map<String, UserProfile> writingBack = new HashMap<>();
+    // Bumped whenever the profiles may have changed on disk under a reader (new snapshot, clear)
+    private volatile long generation;
+
+    public UserCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public UserProfile get(String userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        UserProfile user = entry.get();
+        if (user != null) {
+            entry.used = true;
+        }
+        return user;
+    }
+
+    // Take this before reading a profile from the snapshot and pass it to putClean
+    public long getGeneration() {
+        return generation;
+    }
+
+    // Registers a profile just read from the snapshot and returns the one to use: the profile already in use if
+    // another thread registered one meanwhile, or null if the generation has changed since the read started
+    // (the snapshot it was read from may be out of date, read it again)
+    public synchronized UserProfile putClean(UserProfile user, long readGeneration) {
+        if (readGeneration != generation) {
+            return null;
+        }
+        expungeCollected();
+        Entry entry = entries.get(user.getUserId());
+        UserProfile existing = entry == null ? null : entry.get();
+        if (existing != null) {
+            entry.used = true;
+            return existing;
+        }
+        entry = new Entry(user, collected);
+        entries.put(user.getUserId(), entry);
+        keep(entry, user);
+        return user;
+    }
+
+    // The profile must be the one in use for the user (or a new user's)
+    public synchronized void markDirty(UserProfile user) {
+        expungeCollected();
+        Entry entry = entries.get(user.getUserId());
+        UserProfile existing = entry == null ? null : entry.get();
+        if (existing == null) {
+            entries.put(user.getUserId(), new Entry(user, collected));
+        } else if (existing != user) {
+            throw new IllegalStateException("Another profile of " + user.getUserId() + " is in use");
+        }
+        dirty.put(user.getUserId(), user);
+    }
+
+    public synchronized int getDirtyCount() {
+        return dirty.size() + writingBack.size();
+    }
+
+    // Starts a write-back: returns copies of the dirty profiles as they are right now.
+    // Profiles changed again before finishWriteBack() simply become dirty once more.
+    public synchronized List<UserProfile> beginWriteBack() {
+        List<UserProfile> copies = new ArrayList<>(writingBack.size() + dirty.size());
+        // Profiles from a write-back that failed are retried
+        writingBack.putAll(dirty);
+        dirty = new HashMap<>();
+        for (UserProfile user : writingBack.values()) {
+            copies.add(user.copy());
+        }
+        return copies;
+    }
+
+    // The written-back profiles are in the new snapshot now (already swapped in) and become ordinary clean
+    // entries. Readers that started on the old snapshot read again.
+    public synchronized void finishWriteBack() {
+        generation++;
+        for (UserProfile user : writingBack.values()) {
+            Entry entry = entries.get(user.getUserId());
+            if (!dirty.containsKey(user.getUserId()) && entry != null && entry.get() == user) {
+                keep(entry, user);
+            }
+        }
+        writingBack = new HashMap<>();
+    }
+
+    // Users that exist only in memory and the journal, not yet in any snapshot
+    public synchronized List<UserProfile> getPending() {
+        List<UserProfile> pending = new ArrayList<>(dirty.values());
+        for (UserProfile user : writingBack.values()) {
+            if (!dirty.containsKey(user.getUserId())) {
+                pending.add(user);
+            }
+        }
+        return pending;
+    }
+
+    public synchronized void clear() {
+        generation++;
+        for (Entry entry : kept) {
+            entry.keptUser = null;
+        }
+        kept.clear();
+        entries.clear();
+        dirty = new HashMap<>();
+        writingBack = new HashMap<>();
+    }
+
+    // Holds the profile strongly; past the capacity the hand drops the first entry not used since it last passed
+    private void keep(Entry entry, UserProfile user) {
+        if (entry.keptUser != null) {
+            return;
+        }
+        entry.keptUser = user;
+        kept.add(entry);
+        while (kept.size() > capacity) {
+            Entry eldest = kept.poll();
+            if (eldest.used) {
+                eldest.used = false;
+                kept.add(eldest);
+            } else {
+                eldest.keptUser = null;
+            }
+        }
+    }
+
+    // Forgets profiles nobody holds any more
+    private void expungeCollected() {
+        Reference<? extends UserProfile> ref;
+        while ((ref = collected.poll()) != null) {
+            entries.remove(((Entry) ref).userId, ref);
+        }
+    }
+}
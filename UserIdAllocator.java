@@ -0,0 +1,166 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+// File Handling: Hands out user IDs in the usual form (initial + name + number) from a sequence per name, so an ID
+// costs constant time however many people share the name, and numbers never run out.
+// Sequences are reserved in blocks: only the end of each reserved block is appended to the ID file, and after a
+// restart numbering continues from there, so an ID is never handed out twice (a crash only skips the rest of a block).
+public class UserIdAllocator implements Closeable {
+
+    private static final int FIRST_NUMBER = 1000;
+    private static final int BLOCK_SIZE = 64;
+
+    // Next number and the end of the reserved block for one name; guarded by itself
+    private static class Sequence {
+        long next;
+        long reservedUntil;
+
+        Sequence(long start) {
+            next = start;
+            reservedUntil = start;
+        }
+    }
+
+    private final Path file;
+    private final Map<String, Sequence> sequences = new ConcurrentHashMap<>();
+    // Guarded by this
+    private FileChannel channel;
+    private Writer log;
+
+    private UserIdAllocator(Path file) {
+        this.file = file;
+    }
+
+    public static UserIdAllocator open(Path file) throws IOException {
+        UserIdAllocator allocator = new UserIdAllocator(file);
+        int lines = 0;
+        Map<String, Long> reserved = new HashMap<>();
+        // A torn last line from a crash mid-write may still parse (as a shorter number), so cut it off before
+        // reading; its block was never handed out
+        try (FileChannel existing = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+            cutTornLine(existing);
+        } catch (NoSuchFileException e) {
+            // No IDs allocated yet
+        }
+        // Lenient decoding: a torn multi-byte character must not make the whole file unreadable
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.lastIndexOf('\t');
+                try {
+                    // Later reservations for a name are always higher
+                    reserved.merge(line.substring(0, tab), Long.parseLong(line.substring(tab + 1)), Math::max);
+                    lines++;
+                } catch (RuntimeException e) {
+                    // Not a reservation line; skipped
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // No IDs allocated yet
+        }
+        for (Map.Entry<String, Long> entry : reserved.entrySet()) {
+            allocator.sequences.put(entry.getKey(), new Sequence(entry.getValue()));
+        }
+
+        // One line per reservation; rewrite with one line per name once that has grown well beyond the names
+        if (lines > 2 * reserved.size() + 1000) {
+            allocator.rewrite(reserved);
+        }
+        allocator.openLog();
+        return allocator;
+    }
+
+    // Returns a new ID for the name. IDs for which taken returns true (e.g. random IDs given out by earlier
+    // versions) are skipped; each number is tried only once, so the skips never repeat.
+    public String allocate(String fullName, Predicate<String> taken) throws IOException {
+        String cleanName = fullName.replaceAll("\\s+", "");
+        String prefix = cleanName.isEmpty() ? "" : cleanName.substring(0, 1).toUpperCase();
+        Sequence sequence = sequences.computeIfAbsent(cleanName, name -> new Sequence(FIRST_NUMBER));
+        synchronized (sequence) {
+            while (true) {
+                if (sequence.next >= sequence.reservedUntil) {
+                    reserve(cleanName, sequence.next + BLOCK_SIZE);
+                    sequence.reservedUntil = sequence.next + BLOCK_SIZE;
+                }
+                String userId = prefix + cleanName + sequence.next++;
+                if (!taken.test(userId)) {
+                    return userId;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (log != null) {
+            log.close();
+            log = null;
+            channel = null;
+        }
+    }
+
+    // Durably records that numbers below until may have been handed out for the name
+    private synchronized void reserve(String cleanName, long until) throws IOException {
+        if (log == null) {
+            throw new IOException("User ID file " + file + " is closed");
+        }
+        log.write(cleanName + '\t' + until + '\n');
+        log.flush();
+        channel.force(false);
+    }
+
+    private void openLog() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        channel.position(channel.size());
+        log = Channels.newWriter(channel, StandardCharsets.UTF_8);
+    }
+
+    // Truncates the file after its last line break, so the next reservation starts on a line of its own
+    private static void cutTornLine(FileChannel channel) throws IOException {
+        long end = channel.size();
+        ByteBuffer last = ByteBuffer.allocate(1);
+        while (end > 0) {
+            last.clear();
+            channel.read(last, end - 1);
+            if (last.get(0) == '\n') {
+                break;
+            }
+            end--;
+        }
+        if (end < channel.size()) {
+            channel.truncate(end);
+            channel.force(false);
+        }
+    }
+
+    private void rewrite(Map<String, Long> reserved) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             Writer writer = Channels.newWriter(out, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Long> entry : reserved.entrySet()) {
+                writer.write(entry.getKey() + '\t' + entry.getValue() + '\n');
+            }
+            writer.flush();
+            // On disk before it replaces the file, or a crash could leave the reserved block ends lost
+            out.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
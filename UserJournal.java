@@ -0,0 +1,279 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+// File Handling: Append-only write-ahead log of user changes. Each record is [length][crc32][payload],
+// so a record torn by a crash is detected on replay and cut off instead of corrupting later appends.
+public class UserJournal implements Closeable {
+
+    // Record types
+    private static final byte REGISTER = 1;
+    private static final byte ADD_SKILL = 2;
+    private static final byte REMOVE_SKILL = 3;
+    private static final byte SET_FIELD = 4;
+
+    private final Path file;
+    private final DataOutputStream out;
+    private int recordCount;
+
+    private UserJournal(Path file, int recordCount) throws IOException {
+        this.file = file;
+        this.recordCount = recordCount;
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)));
+    }
+
+    // Opens the journal for appending, first truncating any torn record left at its tail
+    public static UserJournal open(Path file) throws IOException {
+        int[] validRecords = new int[1];
+        long validLength = replay(file, null, null, validRecords);
+        if (Files.exists(file) && Files.size(file) > validLength) {
+            System.err.println("Truncating torn tail of " + file + " at byte " + validLength);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        return new UserJournal(file, validRecords[0]);
+    }
+
+    // Appends the intact records of source to target (cutting a torn tail off target first) and deletes source
+    public static void concat(Path target, Path source) throws IOException {
+        open(target).close();
+        long validLength = replay(source, null);
+        if (validLength > 0) {
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long copied = 0;
+                while (copied < validLength) {
+                    copied += in.transferTo(copied, validLength - copied, out);
+                }
+            }
+        }
+        Files.deleteIfExists(source);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Number of records in this journal file, used to decide when to compact
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    // Record encoders: changes are encoded by the caller and written later, in batches, by the persistence writer
+
+    public static Record register(UserProfile user) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeByte(REGISTER);
+        payload.writeUTF(user.getUserId());
+        payload.writeUTF(user.getFullName());
+        payload.writeUTF(user.getPassword());
+        return new Record(REGISTER, user.getUserId(), bytes.toByteArray());
+    }
+
+    public static Record addSkill(String userId, String name, String type, int proficiency) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeByte(ADD_SKILL);
+        payload.writeUTF(userId);
+        payload.writeUTF(name);
+        payload.writeUTF(type);
+        payload.writeInt(proficiency);
+        return new Record(ADD_SKILL, userId, bytes.toByteArray());
+    }
+
+    public static Record removeSkill(String userId, String name, String type) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeByte(REMOVE_SKILL);
+        payload.writeUTF(userId);
+        payload.writeUTF(name);
+        payload.writeUTF(type);
+        return new Record(REMOVE_SKILL, userId, bytes.toByteArray());
+    }
+
+    public static Record setField(String userId, String field) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeByte(SET_FIELD);
+        payload.writeUTF(userId);
+        payload.writeBoolean(field != null);
+        if (field != null) {
+            payload.writeUTF(field);
+        }
+        return new Record(SET_FIELD, userId, bytes.toByteArray());
+    }
+
+    // Drops field changes that a later field change of the same user in the batch overwrites anyway
+    public static List<Record> coalesce(List<Record> batch) {
+        Set<String> fieldSetLater = new HashSet<>();
+        List<Record> kept = new ArrayList<>(batch.size());
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            Record record = batch.get(i);
+            if (record.op == SET_FIELD && !fieldSetLater.add(record.userId)) {
+                continue;
+            }
+            kept.add(record);
+        }
+        Collections.reverse(kept);
+        return kept;
+    }
+
+    // Writes the whole batch with a single flush; returns the bytes written
+    public long append(List<Record> records) throws IOException {
+        CRC32 crc = new CRC32();
+        long bytes = 0;
+        for (Record record : records) {
+            crc.reset();
+            crc.update(record.payload);
+            out.writeInt(record.payload.length);
+            out.writeInt((int) crc.getValue());
+            out.write(record.payload);
+            bytes += 8 + record.payload.length;
+        }
+        // Hand the records to the OS right away so they survive an application crash
+        out.flush();
+        recordCount += records.size();
+        return bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    // Applies every intact record of the file to users (users may be null to only validate).
+    // Returns the byte length of the intact prefix; a missing file is an empty journal.
+    // Replaying a journal on top of a snapshot that already contains it leaves the snapshot unchanged:
+    // register replaces the profile and re-applies what follows, duplicate adds are ignored.
+    public static long replay(Path file, Map<String, UserProfile> users) throws IOException {
+        return replay(file, users, null, new int[1]);
+    }
+
+    // Same, but a user missing from users is first fetched through baseLoader (e.g. from a lazily read
+    // snapshot), so afterwards users holds exactly the profiles the journal touched
+    public static long replay(Path file, Map<String, UserProfile> users, ProfileLoader baseLoader) throws IOException {
+        return replay(file, users, baseLoader, new int[1]);
+    }
+
+    private static long replay(Path file, Map<String, UserProfile> users, ProfileLoader baseLoader, int[] recordCount) throws IOException {
+        InputStream raw;
+        try {
+            raw = Files.newInputStream(file);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+
+        long fileSize = Files.size(file);
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(raw))) {
+            while (true) {
+                byte[] payload;
+                int expectedCrc;
+                try {
+                    int length = in.readInt();
+                    expectedCrc = in.readInt();
+                    if (length < 0 || length > fileSize - validLength - 8) {
+                        break; // Garbage length from a torn header
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break; // End of file, or a record torn mid-write
+                }
+
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != expectedCrc) {
+                    System.err.println("Corrupt record in " + file + " at byte " + validLength + ", ignoring the rest");
+                    break;
+                }
+                if (users != null) {
+                    apply(payload, users, baseLoader);
+                }
+                validLength += 8 + payload.length;
+                recordCount[0]++;
+            }
+        }
+        return validLength;
+    }
+
+    private static void apply(byte[] record, Map<String, UserProfile> users, ProfileLoader baseLoader) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        byte op = in.readByte();
+        String userId = in.readUTF();
+        if (op == REGISTER) {
+            String fullName = in.readUTF();
+            String password = in.readUTF();
+            users.put(userId, new UserProfile(fullName, password, userId));
+            return;
+        }
+
+        UserProfile user = users.get(userId);
+        if (user == null && baseLoader != null) {
+            user = baseLoader.load(userId);
+            if (user != null) {
+                users.put(userId, user);
+            }
+        }
+        if (user == null) {
+            return; // Change for a user that was never registered, nothing to apply it to
+        }
+        switch (op) {
+            case ADD_SKILL:
+                user.addSkill(in.readUTF(), in.readUTF(), in.readInt());
+                break;
+            case REMOVE_SKILL:
+                user.removeSkill(in.readUTF(), in.readUTF());
+                break;
+            case SET_FIELD:
+                user.setField(in.readBoolean() ? in.readUTF() : null);
+                break;
+            default:
+                throw new IOException("Unknown journal record type " + op);
+        }
+    }
+
+    // One encoded change, with the time it was made so the writer can report end-to-end save latency
+    public static class Record {
+        private final byte op;
+        private final String userId;
+        private final byte[] payload;
+        private final long createdNanos = System.nanoTime();
+
+        private Record(byte op, String userId, byte[] payload) {
+            this.op = op;
+            this.userId = userId;
+            this.payload = payload;
+        }
+
+        public long getCreatedNanos() {
+            return createdNanos;
+        }
+    }
+
+    public interface ProfileLoader {
+        UserProfile load(String userId) throws IOException;
+    }
+}
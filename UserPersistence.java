@@ -1,35 +1,843 @@
 import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
+// File Handling: Users live in a snapshot (user_data.bin) plus a journal of the changes made since it was
+// written. Each action queues one small journal record for the persistence writer thread; a background task
+// periodically writes the changed profiles back into a new snapshot, so the cost of an action no longer grows
+// with the number of registered users and never blocks the caller on disk I/O.
+//
+// Interactive sessions use the lazy API (open, userExists, findUser, record*): profiles are read one at a time
+// through the snapshot's userId index and kept in a UserCache, which hands out one live profile per user, so the
+// profile's own lock is the lock for that user. Lookups take no global lock (record* only a shared one that bulk
+// writes exclude): a cache hit is lock-free and a miss only locks its stripe of user IDs while it reads the
+// snapshot, so different users never wait for each other. Batch tools use loadUsers/saveUsers, or forEachUser and BulkImport for populations too large to
+// hold in memory.
+// The record* methods expect the change to be made already; UserStore makes both under the profile's lock,
+// so callers that hold a profile's lock may call in here (never the other way round).
 public class UserPersistence {
-    private static final String DATA_FILE = "user_data.ser";
+    private static final String DATA_FILE = "user_data.bin";
+    // Java-serialized snapshot written by earlier versions, migrated to DATA_FILE on first load
+    private static final String LEGACY_DATA_FILE = "user_data.ser";
+    private static final String JOURNAL_FILE = "user_data.journal";
+    // Journal segment that has been sealed and is being written back into the snapshot
+    private static final String COMPACTING_JOURNAL_FILE = "user_data.journal.compacting";
+    // Reserved user ID sequences (see UserIdAllocator)
+    private static final String ID_FILE = "user_data.ids";
+
+    // Write changed profiles back once the active journal holds this many records
+    private static final int COMPACTION_THRESHOLD = 1000;
+    // Unchanged profiles kept in memory
+    private static final int CACHE_CAPACITY = 1000;
+    // Cache misses on user IDs in the same stripe read the snapshot one at a time
+    private static final int LOAD_STRIPES = 64;
+
+    private static final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "user-data-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Builds the candidate index and population stats, so no caller holds a lock while every user is read
+    private static final ExecutorService aggregator = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "user-aggregates");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Shared by record*, exclusive for the bulk writes that start over (saveUsers, BulkImport.commit), so no
+    // change lands in the cache between the bulk write and the cache being cleared. Taken before the journal lock.
+    private static final ReentrantReadWriteLock bulkLock = new ReentrantReadWriteLock();
+    // Guards the journal, which only the writer thread appends to. Always taken before the class lock.
+    private static final Object journalLock = new Object();
+    private static UserJournal journal;
+    private static volatile PersistenceWriter writer;
+    private static PersistenceWriter.SaveListener saveListener;
+    private static boolean shutdownHookInstalled;
+    private static Future<?> compaction;
+
+    // Replaced only under the class lock; readers retain() it for the duration of a read
+    private static volatile UserSnapshot snapshot;
+    // Set when the snapshot could not be read; write-back is then disabled so it is never overwritten
+    private static volatile boolean snapshotUnreadable;
+    private static final UserCache cache = new UserCache(CACHE_CAPACITY);
+    private static final ReentrantLock[] loadLocks = new ReentrantLock[LOAD_STRIPES];
+    // Registered users that are only in the journal so far
+    private static final Set<String> unsavedNewUsers = ConcurrentHashMap.newKeySet();
+    private static UserIdAllocator idAllocator;
+    // Skill postings over all users for recruiter queries; built on first use, then kept current by record*
+    private static volatile Aggregate<CandidateIndex> candidateIndex;
+    // Dashboard aggregates over all users; built on first use like the candidate index, then kept current by record*
+    private static volatile Aggregate<PopulationStats> populationStats;
+
+    private static final Metrics.Latency LOAD_TIME = Metrics.latency("users.load");
+    private static final Metrics.Latency SAVE_TIME = Metrics.latency("users.save");
+    private static final Metrics.Latency OPEN_TIME = Metrics.latency("users.open");
+    // Profile reads from the snapshot on a cache miss
+    private static final Metrics.Latency READ_TIME = Metrics.latency("users.read");
+    private static final Metrics.Latency WRITE_BACK_TIME = Metrics.latency("users.writeBack");
+    private static final Metrics.Latency IMPORT_TIME = Metrics.latency("users.import");
+    private static final Metrics.Counter JOURNAL_BYTES = Metrics.counter("journal.bytes");
+    private static volatile long lastBatchBytes;
+
+    static {
+        for (int i = 0; i < LOAD_STRIPES; i++) {
+            loadLocks[i] = new ReentrantLock();
+        }
+        Metrics.gauge("users.count", UserPersistence::getOpenedUserCount);
+        Metrics.gauge("users.snapshotBytes", () -> {
+            try {
+                return Files.size(Paths.get(DATA_FILE));
+            } catch (IOException e) {
+                return 0;
+            }
+        });
+        Metrics.gauge("journal.queueDepth", UserPersistence::getPendingWrites);
+        Metrics.gauge("journal.lastBatchBytes", () -> lastBatchBytes);
+    }
 
     // Encapsulation: Utility class for file handling, methods are static
 
+    // Reads the whole population into memory (snapshot plus journal), for batch tools
     public static Map<String, UserProfile> loadUsers() {
-        // File Handling: Reading objects from a serialized file
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(DATA_FILE))) {
-            // Unchecked cast is safe as we control what's written.
-            return (Map<String, UserProfile>) ois.readObject();
-        } catch (FileNotFoundException e) {
-            // First run, file doesn't exist yet. Return an empty map.
-            return new HashMap<>();
-        } catch (IOException | ClassNotFoundException e) {
+        long start = System.nanoTime();
+        flushWrites();
+        synchronized (UserPersistence.class) {
+            // Recovery: last snapshot, then the segment that was being written back, then the active journal
+            Map<String, UserProfile> users = new HashMap<>();
+            awaitCompaction();
+            try {
+                prepareSnapshot();
+                users = readSnapshot();
+                UserJournal.replay(Paths.get(COMPACTING_JOURNAL_FILE), users);
+                UserJournal.replay(Paths.get(JOURNAL_FILE), users);
+            } catch (IOException e) {
+                System.err.println("Error loading user data: " + e.getMessage());
+                e.printStackTrace();
+            }
+            LOAD_TIME.recordSince(start);
+            return users;
+        }
+    }
+
+    // Writes a full snapshot of users and starts a new, empty journal. Meant for bulk tools,
+    // interactive changes should go through the record* methods instead.
+    public static void saveUsers(Map<String, UserProfile> users) {
+        long start = System.nanoTime();
+        flushWrites();
+        bulkLock.writeLock().lock();
+        try {
+            synchronized (journalLock) {
+                synchronized (UserPersistence.class) {
+                    awaitCompaction();
+                    try {
+                        writeSnapshot(users);
+                        startOver();
+                    } catch (IOException e) {
+                        System.err.println("Error saving user data: " + e.getMessage());
+                        e.printStackTrace();
+                    }
+                }
+            }
+        } finally {
+            bulkLock.writeLock().unlock();
+        }
+        SAVE_TIME.recordSince(start);
+    }
+
+    // Starts a bulk import, see BulkImport
+    public static BulkImport beginImport() {
+        return new BulkImport();
+    }
+
+    // Adds or replaces many profiles at once without going through the journal. Batches are staged in files of
+    // their own as they come (only the user IDs stay in memory); commit() then merges them, together with every
+    // change not yet written back, into a new snapshot in one pass and starts an empty journal.
+    // Nothing is visible to lookups before commit(); close() removes the staged files, so call it in any case.
+    public static class BulkImport implements Closeable {
+        private final List<Path> staged = new ArrayList<>();
+        // userId -> index of the last staged batch holding the user
+        private final Map<String, Integer> latest = new HashMap<>();
+
+        private BulkImport() {
+        }
+
+        // A user who appears again, in this batch or a later one, ends up with the last profile given
+        public synchronized void add(Collection<UserProfile> batch) throws IOException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            Map<String, UserProfile> users = new LinkedHashMap<>();
+            for (UserProfile user : batch) {
+                users.put(user.getUserId(), user);
+            }
+            Path file = Paths.get(DATA_FILE + ".import." + staged.size());
+            UserRecordCodec.write(file, users);
+            staged.add(file);
+            for (String userId : users.keySet()) {
+                latest.put(userId, staged.size() - 1);
+            }
+        }
+
+        // Distinct users staged so far
+        public synchronized int getUserCount() {
+            return latest.size();
+        }
+
+        public synchronized void commit() throws IOException {
+            long start = System.nanoTime();
+            flushWrites();
+            bulkLock.writeLock().lock();
+            try {
+                synchronized (journalLock) {
+                    synchronized (UserPersistence.class) {
+                        awaitCompaction();
+                        UserSnapshot base = snapshot();
+                        if (snapshotUnreadable) {
+                            throw new IOException(DATA_FILE + " could not be read, not importing over it");
+                        }
+                        List<UserSnapshot> imported = new ArrayList<>();
+                        Path temp = Paths.get(DATA_FILE + ".tmp");
+                        try {
+                            for (Path file : staged) {
+                                imported.add(UserSnapshot.open(file));
+                            }
+                            UserRecordCodec.merge(base, cache.getPending(), imported, latest, temp);
+                        } finally {
+                            for (UserSnapshot batch : imported) {
+                                batch.close();
+                            }
+                        }
+                        base.close();
+                        try {
+                            moveIntoPlace(temp, Paths.get(DATA_FILE));
+                        } finally {
+                            snapshot = UserSnapshot.open(Paths.get(DATA_FILE));
+                        }
+                        startOver();
+                    }
+                }
+            } finally {
+                bulkLock.writeLock().unlock();
+            }
+            IMPORT_TIME.recordSince(start);
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            for (Path file : staged) {
+                Files.deleteIfExists(file);
+            }
+            staged.clear();
+            latest.clear();
+        }
+    }
+
+    // Opens the snapshot for lazy lookups and recovers the journal. Only the header, string table and the
+    // profiles touched by the journal are read, so this does not depend on the number of registered users.
+    public static synchronized void open() {
+        if (snapshot != null) {
+            return;
+        }
+        long start = System.nanoTime();
+        Path compacting = Paths.get(COMPACTING_JOURNAL_FILE);
+        try {
+            prepareSnapshot();
+            snapshot = UserSnapshot.open(Paths.get(DATA_FILE));
+
+            Map<String, UserProfile> recovered = new HashMap<>();
+            UserJournal.replay(compacting, recovered, snapshot::load);
+            UserJournal.replay(Paths.get(JOURNAL_FILE), recovered, snapshot::load);
+            for (UserProfile user : recovered.values()) {
+                cache.markDirty(user);
+                if (!snapshot.contains(user.getUserId())) {
+                    unsavedNewUsers.add(user.getUserId());
+                }
+            }
+
+            // A write-back was interrupted by the last shutdown: fold the active journal into the sealed
+            // segment and write every recovered profile back now
+            if (Files.exists(compacting)) {
+                UserJournal.concat(compacting, Paths.get(JOURNAL_FILE));
+                startWriteBack();
+            }
+        } catch (IOException e) {
             System.err.println("Error loading user data: " + e.getMessage());
             e.printStackTrace();
-            return new HashMap<>();
+            snapshotUnreadable = true;
+            if (snapshot == null) {
+                snapshot = UserSnapshot.empty(Paths.get(DATA_FILE));
+            }
         }
+        OPEN_TIME.recordSince(start);
     }
 
+    public static boolean userExists(String userId) {
+        try {
+            while (true) {
+                if (unsavedNewUsers.contains(userId) || cache.get(userId) != null) {
+                    return true;
+                }
+                long generation = cache.getGeneration();
+                UserSnapshot current = acquireSnapshot();
+                try {
+                    if (current.contains(userId)) {
+                        return true;
+                    }
+                } finally {
+                    current.release();
+                }
+                if (cache.getGeneration() == generation) {
+                    return false;
+                }
+                // A write-back swapped in a new snapshot meanwhile, look again
+            }
+        } catch (IOException e) {
+            reportReadError(e);
+            return false;
+        }
+    }
 
-    public static void saveUsers(Map<String, UserProfile> users) {
-        // File Handling: Writing objects to a serialized file
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(DATA_FILE))) {
-            oos.writeObject(users);
+    // Returns the user's profile, reading it from the snapshot on a cache miss, or null if there is no such user.
+    // Every caller gets the same profile for a user for as long as any of them holds it.
+    public static UserProfile findUser(String userId) {
+        UserProfile user = cache.get(userId);
+        if (user != null) {
+            return user;
+        }
+        // One read per user at a time, so threads missing on the same user share the profile the first one reads
+        ReentrantLock lock = loadLocks[Math.floorMod(userId.hashCode(), LOAD_STRIPES)];
+        lock.lock();
+        try {
+            while (true) {
+                user = cache.get(userId);
+                if (user != null) {
+                    return user;
+                }
+                long generation = cache.getGeneration();
+                long start = System.nanoTime();
+                UserSnapshot current = acquireSnapshot();
+                try {
+                    user = current.load(userId);
+                } finally {
+                    current.release();
+                }
+                READ_TIME.recordSince(start);
+                if (user == null) {
+                    if (cache.getGeneration() == generation) {
+                        return null;
+                    }
+                } else {
+                    user = cache.putClean(user, generation);
+                    if (user != null) {
+                        return user;
+                    }
+                }
+                // The snapshot was replaced while it was read, read the new one
+            }
         } catch (IOException e) {
-            System.err.println("Error saving user data: " + e.getMessage());
+            reportReadError(e);
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A new, unused user ID for the name; safe to call from several threads at once
+    public static String allocateUserId(String fullName) throws IOException {
+        UserIdAllocator allocator;
+        synchronized (UserPersistence.class) {
+            if (idAllocator == null) {
+                idAllocator = UserIdAllocator.open(Paths.get(ID_FILE));
+            }
+            allocator = idAllocator;
+        }
+        // Not under the class lock: other names allocate in parallel, and the uniqueness check takes the lock itself
+        return allocator.allocate(fullName, UserPersistence::userExists);
+    }
+
+    public static int getUserCount() {
+        return snapshot().getUserCount() + unsavedNewUsers.size();
+    }
+
+    // Same, without opening the snapshot for it (-1 until something else has); for the metrics gauge
+    private static int getOpenedUserCount() {
+        return snapshot == null ? -1 : getUserCount();
+    }
+
+    // The record* methods update the cache at once and queue the journal record; they never wait for the disk.
+    // Changes to one user must be recorded in order, which UserStore does by recording under the profile's lock.
+
+    public static void recordRegister(UserProfile user) {
+        try {
+            // Before the profile turns dirty, so a write-back that saves it also finds it here to remove
+            unsavedNewUsers.add(user.getUserId());
+            submit(user, UserJournal.register(user));
+            recordInAggregates(user, aggregate -> aggregate.addUser(user));
+        } catch (IOException e) {
+            reportWriteError(e);
+        }
+    }
+
+    public static void recordAddSkill(UserProfile user, String name, String type, int proficiency) {
+        try {
+            submit(user, UserJournal.addSkill(user.getUserId(), name, type, proficiency));
+            recordInAggregates(user, aggregate -> aggregate.addSkill(user.getUserId(), name, type, proficiency));
+        } catch (IOException e) {
+            reportWriteError(e);
+        }
+    }
+
+    public static void recordRemoveSkill(UserProfile user, String name, String type) {
+        try {
+            submit(user, UserJournal.removeSkill(user.getUserId(), name, type));
+            recordInAggregates(user, aggregate -> aggregate.removeSkill(user.getUserId(), name, type));
+        } catch (IOException e) {
+            reportWriteError(e);
+        }
+    }
+
+    public static void recordSetField(UserProfile user, String field) {
+        try {
+            submit(user, UserJournal.setField(user.getUserId(), field));
+        } catch (IOException e) {
+            reportWriteError(e);
+        }
+    }
+
+    // The k registered users who match the path best. The first call reads every profile once to build the
+    // skill postings (on the aggregates thread; only the callers waiting for it wait); after that each query
+    // only walks the top of the postings for the path's skills.
+    public static List<CandidateIndex.Candidate> findCandidates(CareerPath path, int k) {
+        try {
+            return candidateIndex().built.join().topCandidates(path, k);
+        } catch (CompletionException e) {
+            // Reported by the build, and the next call builds again
+            return new ArrayList<>();
+        }
+    }
+
+    // Aggregates over every registered user for dashboards, or null while they are not ready yet. The first call
+    // starts reading every profile once on the aggregates thread and returns at once; from then on each change
+    // updates them as it is recorded. A bulk save or import starts them over, so ask again each time.
+    public static PopulationStats getPopulationStats() {
+        try {
+            return populationStats().built.getNow(null);
+        } catch (CompletionException e) {
+            // Reported by the build, and the next call builds again
+            return null;
+        }
+    }
+
+    // Calls visitor with every registered user, without loading them all: profiles changed since the snapshot
+    // from memory, the rest decoded one at a time from the snapshot. Takes no lock, so it sees each user as of
+    // some moment during the walk; the profiles from memory are the live ones, so copy() them before reading
+    // more than one field.
+    public static void forEachUser(UserVisitor visitor) throws IOException {
+        Map<String, UserProfile> pending = new HashMap<>();
+        for (UserProfile user : cache.getPending()) {
+            pending.put(user.getUserId(), user);
+        }
+        // Taken after the pending profiles, so a profile written back meanwhile is in this snapshot
+        UserSnapshot current = acquireSnapshot();
+        try {
+            String[] strings = current.getStrings().toArray(new String[0]);
+            current.forEachRecord((userId, body) -> {
+                // Profiles changed since the snapshot are visited from memory below
+                if (!pending.containsKey(userId)) {
+                    visitor.visit(UserRecordCodec.decode(body, strings));
+                }
+            });
+        } finally {
+            current.release();
+        }
+        for (UserProfile user : pending.values()) {
+            visitor.visit(user);
+        }
+    }
+
+    public interface UserVisitor {
+        void visit(UserProfile user) throws IOException;
+    }
+
+    // Skill names and types of every saved profile, from the snapshot's string table without reading any profile
+    public static List<String> getSnapshotStrings() {
+        return new ArrayList<>(snapshot().getStrings());
+    }
+
+    // Reports every written batch (or write error); called on the writer thread
+    public static synchronized void setSaveListener(PersistenceWriter.SaveListener listener) {
+        saveListener = listener;
+        if (writer != null) {
+            writer.setSaveListener(listener);
+        }
+    }
+
+    // Journal records queued but not yet written
+    public static int getPendingWrites() {
+        PersistenceWriter current = writer;
+        return current == null ? 0 : current.getQueueDepth();
+    }
+
+    // Blocks until every change recorded so far is in the journal
+    public static void flushWrites() {
+        PersistenceWriter current = writer;
+        if (current != null) {
+            current.flush();
+        }
+    }
+
+    // Writes out all queued changes and closes the journal. Must run before System.exit; it also runs
+    // from a shutdown hook in case the process exits another way.
+    public static void close() {
+        PersistenceWriter current;
+        synchronized (UserPersistence.class) {
+            current = writer;
+            writer = null;
+        }
+        if (current != null) {
+            current.shutdown();
+        }
+        synchronized (journalLock) {
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing user journal: " + e.getMessage());
+                }
+                journal = null;
+            }
+        }
+        synchronized (UserPersistence.class) {
+            if (idAllocator != null) {
+                try {
+                    idAllocator.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing user ID file: " + e.getMessage());
+                }
+                idAllocator = null;
+            }
+        }
+    }
+
+    private static UserSnapshot snapshot() {
+        UserSnapshot current = snapshot;
+        if (current == null) {
+            open();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    // The current snapshot, retained for a read outside the class lock; release() it when done
+    private static UserSnapshot acquireSnapshot() throws IOException {
+        UserSnapshot current = snapshot();
+        if (current.retain()) {
+            return current;
+        }
+        // Closed by a swap that is still opening its replacement; the class lock waits for the swap to finish
+        synchronized (UserPersistence.class) {
+            current = snapshot;
+        }
+        if (!current.retain()) {
+            throw new IOException(DATA_FILE + " could not be reopened");
+        }
+        return current;
+    }
+
+    // A per-user aggregate, filled by one pass over every user on the aggregates thread and then kept current
+    // by record*
+    private static class Aggregate<T extends UserAggregate> {
+        final T value;
+        final CompletableFuture<T> built = new CompletableFuture<>();
+
+        Aggregate(T value) {
+            this.value = value;
+        }
+    }
+
+    private static synchronized Aggregate<CandidateIndex> candidateIndex() {
+        Aggregate<CandidateIndex> current = candidateIndex;
+        if (current == null || current.built.isCompletedExceptionally()) {
+            current = build(new CandidateIndex());
+            candidateIndex = current;
+        }
+        return current;
+    }
+
+    private static synchronized Aggregate<PopulationStats> populationStats() {
+        Aggregate<PopulationStats> current = populationStats;
+        if (current == null || current.built.isCompletedExceptionally()) {
+            current = build(new PopulationStats());
+            populationStats = current;
+        }
+        return current;
+    }
+
+    // Published by the caller before the pass starts, so every change recorded from then on reaches the aggregate
+    // either through record* or through the pass
+    private static <T extends UserAggregate> Aggregate<T> build(T value) {
+        Aggregate<T> aggregate = new Aggregate<>(value);
+        aggregator.execute(() -> {
+            try {
+                // Users recorded since publication have been counted from their live profile already
+                forEachUser(value::addUserIfAbsent);
+                aggregate.built.complete(value);
+            } catch (IOException e) {
+                reportReadError(e);
+                aggregate.built.completeExceptionally(e);
+            } catch (RuntimeException e) {
+                aggregate.built.completeExceptionally(e);
+                throw e;
+            }
+        });
+        return aggregate;
+    }
+
+    // Applies a recorded change to each aggregate. While the pass is still running the user is recounted in
+    // full instead, since the pass may have counted them from an older copy (or not reached them yet).
+    private static void recordInAggregates(UserProfile user, Consumer<UserAggregate> change) {
+        for (Aggregate<?> aggregate : new Aggregate<?>[] {candidateIndex, populationStats}) {
+            if (aggregate == null) {
+                continue;
+            }
+            if (aggregate.built.isDone()) {
+                change.accept(aggregate.value);
+            } else {
+                aggregate.value.addUser(user);
+            }
+        }
+    }
+
+    private static void submit(UserProfile user, UserJournal.Record record) {
+        // Recover the existing journal before anything new is appended to it
+        snapshot();
+        bulkLock.readLock().lock();
+        try {
+            cache.markDirty(user);
+            while (true) {
+                try {
+                    writer().submit(record);
+                    return;
+                } catch (IllegalStateException e) {
+                    // Shut down by close() meanwhile; the next writer takes it
+                }
+            }
+        } finally {
+            bulkLock.readLock().unlock();
+        }
+    }
+
+    private static PersistenceWriter writer() {
+        PersistenceWriter current = writer;
+        if (current != null) {
+            return current;
+        }
+        synchronized (UserPersistence.class) {
+            if (writer == null) {
+                writer = new PersistenceWriter(UserPersistence::writeBatch);
+                writer.setSaveListener(saveListener);
+                if (!shutdownHookInstalled) {
+                    Runtime.getRuntime().addShutdownHook(new Thread(UserPersistence::close, "persistence-shutdown"));
+                    shutdownHookInstalled = true;
+                }
+            }
+            return writer;
+        }
+    }
+
+    // Runs on the writer thread
+    private static void writeBatch(List<UserJournal.Record> batch) throws IOException {
+        synchronized (journalLock) {
+            if (journal == null) {
+                journal = UserJournal.open(Paths.get(JOURNAL_FILE));
+            }
+            lastBatchBytes = journal.append(batch);
+            JOURNAL_BYTES.add(lastBatchBytes);
+            if (journal.getRecordCount() >= COMPACTION_THRESHOLD) {
+                sealJournal();
+            }
+        }
+    }
+
+    // Seals the active journal and starts a write-back of the changed profiles (journal lock held)
+    private static void sealJournal() throws IOException {
+        synchronized (UserPersistence.class) {
+            if (isCompacting() || snapshotUnreadable) {
+                return;
+            }
+            journal.close();
+            journal = null;
+            Path compacting = Paths.get(COMPACTING_JOURNAL_FILE);
+            if (Files.exists(compacting)) {
+                // The previous write-back failed; its profiles are retried together with the new ones
+                UserJournal.concat(compacting, Paths.get(JOURNAL_FILE));
+            } else {
+                Files.move(Paths.get(JOURNAL_FILE), compacting);
+            }
+            startWriteBack();
+        }
+    }
+
+    // The copies taken here contain every change in the sealed journal segment, so once they are in the new
+    // snapshot the segment can go. They may also contain changes still queued for the next segment;
+    // replaying those over a snapshot that already has them changes nothing.
+    private static void startWriteBack() {
+        List<UserProfile> changed = cache.beginWriteBack();
+        UserSnapshot base = snapshot;
+        compaction = compactor.submit(() -> writeBack(base, changed));
+    }
+
+    // Runs on the compactor thread: streams the current snapshot into a new one, replacing the changed profiles.
+    // Lookups keep reading the old snapshot until the new one is swapped in.
+    private static void writeBack(UserSnapshot base, List<UserProfile> changed) {
+        Path temp = Paths.get(DATA_FILE + ".tmp");
+        long start = System.nanoTime();
+        try {
+            UserRecordCodec.merge(base, changed, temp);
+            synchronized (UserPersistence.class) {
+                base.close();
+                try {
+                    moveIntoPlace(temp, Paths.get(DATA_FILE));
+                } finally {
+                    snapshot = UserSnapshot.open(Paths.get(DATA_FILE));
+                }
+                cache.finishWriteBack();
+                for (UserProfile user : changed) {
+                    unsavedNewUsers.remove(user.getUserId());
+                }
+                // Only now is it safe to drop the segment; a crash before this line just replays it again
+                Files.deleteIfExists(Paths.get(COMPACTING_JOURNAL_FILE));
+                UserPersistence.class.notifyAll();
+            }
+            WRITE_BACK_TIME.recordSince(start);
+        } catch (IOException e) {
+            System.err.println("Error writing back user data: " + e.getMessage());
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    // After a bulk write: the new snapshot holds everything, so the journal and the lazy view start over
+    // (journal lock and class lock held)
+    private static void startOver() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        Files.deleteIfExists(Paths.get(JOURNAL_FILE));
+        Files.deleteIfExists(Paths.get(COMPACTING_JOURNAL_FILE));
+        if (snapshot != null) {
+            snapshot.close();
+            snapshot = UserSnapshot.open(Paths.get(DATA_FILE));
+            snapshotUnreadable = false;
+            cache.clear();
+            unsavedNewUsers.clear();
+            candidateIndex = null;
+            populationStats = null;
+        }
+    }
+
+    private static boolean isCompacting() {
+        return compaction != null && !compaction.isDone();
+    }
+
+    // Called with the lock held; wait() releases it so the write-back can swap its snapshot in and finish
+    private static void awaitCompaction() {
+        try {
+            while (isCompacting()) {
+                UserPersistence.class.wait(100);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<String, UserProfile> readSnapshot() throws IOException {
+        Path snapshot = Paths.get(DATA_FILE);
+        if (!Files.exists(snapshot)) {
+            // First run, file doesn't exist yet. Return an empty map.
+            return new HashMap<>();
+        }
+        return UserRecordCodec.read(snapshot);
+    }
+
+    // Brings older files up to the current format before they are read
+    private static synchronized void prepareSnapshot() throws IOException {
+        migrateLegacySnapshot();
+        Path data = Paths.get(DATA_FILE);
+        boolean hasIndex;
+        try (UserSnapshot existing = UserSnapshot.open(data)) {
+            hasIndex = existing.hasIndex();
+        }
+        if (!hasIndex) {
+            // Format v1 snapshot without a userId index: rewrite it once
+            writeSnapshot(UserRecordCodec.read(data));
+        }
+    }
+
+    // One-time conversion of a Java-serialized user_data.ser into the binary format.
+    // The old file is kept as user_data.ser.migrated in case the conversion has to be redone.
+    private static void migrateLegacySnapshot() throws IOException {
+        Path legacy = Paths.get(LEGACY_DATA_FILE);
+        if (Files.exists(Paths.get(DATA_FILE)) || !Files.exists(legacy)) {
+            return;
+        }
+        writeSnapshot(readLegacySnapshot(legacy));
+        Files.move(legacy, Paths.get(LEGACY_DATA_FILE + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+        System.out.println("Migrated " + LEGACY_DATA_FILE + " to " + DATA_FILE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, UserProfile> readLegacySnapshot(Path legacy) throws IOException {
+        // File Handling: Reading objects from a serialized file
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(legacy)))) {
+            // Unchecked cast is safe as we control what's written.
+            return (Map<String, UserProfile>) ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unreadable snapshot " + legacy, e);
+        }
+    }
+
+    // Writes to a temporary file first so a crash mid-write never leaves a half-written snapshot
+    private static void writeSnapshot(Map<String, UserProfile> users) throws IOException {
+        Path temp = Paths.get(DATA_FILE + ".tmp");
+        UserRecordCodec.write(temp, users);
+        moveIntoPlace(temp, Paths.get(DATA_FILE));
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void reportReadError(IOException e) {
+        System.err.println("Error reading user data: " + e.getMessage());
+        e.printStackTrace();
+    }
+
+    private static void reportWriteError(IOException e) {
+        System.err.println("Error writing user journal: " + e.getMessage());
+        e.printStackTrace();
+    }
+}
@@ -1,16 +1,112 @@
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicLong;
 
 // Encapsulation: Fields are private, access is controlled by public methods.
+// Thread-safe: the field and skills live in one immutable State that every change replaces (copy-on-write).
+// Readers never lock and always see a whole profile; changes to one profile are serialized by its own monitor.
+// Every state carries a version, so cached results computed from a profile can tell when it has changed.
 public class UserProfile implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    // Up to this many skills a scan of the key array is as fast as hashing and needs no extra memory
+    private static final int SCAN_LIMIT = 16;
+
+    // File Handling: Keep the serialized form of earlier versions, with field and skills as plain fields
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("userId", String.class),
+            new ObjectStreamField("fullName", String.class),
+            new ObjectStreamField("field", String.class),
+            new ObjectStreamField("password", String.class),
+            new ObjectStreamField("skills", List.class)
+    };
+
+    // Contents of a profile at one point in time; never changed once published.
+    // Compact storage: each skill is its SkillDictionary key (interned name ID with the type in the low bits)
+    // plus a byte proficiency, in two parallel arrays, so a profile holds no Skill or String objects of its own.
+    // Lookups scan the keys of a small profile; a profile with more than SCAN_LIMIT skills also gets a hash index
+    // from key to position, built with the state, so lookups stay constant-time however many skills it holds.
+    // Versions are drawn from one counter for all profiles, so a version never stands for two different contents,
+    // not even after a profile is evicted and read back in as a new object.
+    private static class State {
+        // Declared first: EMPTY is built with it
+        private static final AtomicLong VERSIONS = new AtomicLong();
+        static final State EMPTY = new State(null, new int[0], new byte[0]);
+
+        final String field;
+        final int[] skillKeys;
+        final byte[] proficiencies;
+        final long version;
+        // Key -> position, null up to SCAN_LIMIT skills; never changed once the state is published
+        private final SkillKeyIndex positions;
+
+        State(String field, int[] skillKeys, byte[] proficiencies) {
+            this(field, skillKeys, proficiencies, null);
+        }
+
+        // Shares the index of a state with the same skills
+        State(String field, int[] skillKeys, byte[] proficiencies, State sameSkills) {
+            this.field = field;
+            this.skillKeys = skillKeys;
+            this.proficiencies = proficiencies;
+            this.version = VERSIONS.incrementAndGet();
+            if (sameSkills != null) {
+                positions = sameSkills.positions;
+            } else if (skillKeys.length > SCAN_LIMIT) {
+                positions = new SkillKeyIndex(skillKeys.length);
+                for (int i = 0; i < skillKeys.length; i++) {
+                    positions.put(skillKeys[i], i);
+                }
+            } else {
+                positions = null;
+            }
+        }
+
+        int indexOf(int skillKey) {
+            if (positions != null) {
+                return positions.get(skillKey);
+            }
+            for (int i = 0; i < skillKeys.length; i++) {
+                if (skillKeys[i] == skillKey) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // Encapsulation: Read-only view of one state's skills; the Skill objects are made on access
+    private static class SkillView extends AbstractList<Skill> implements RandomAccess {
+        private final State state;
+
+        SkillView(State state) {
+            this.state = state;
+        }
+
+        @Override
+        public Skill get(int index) {
+            int key = state.skillKeys[index];
+            return new Skill(SkillDictionary.nameOfKey(key), SkillDictionary.typeOfKey(key), state.proficiencies[index]);
+        }
+
+        @Override
+        public int size() {
+            return state.skillKeys.length;
+        }
+    }
+
     private String userId;
     private String fullName;
-    private String field;
     private String password;
-    private List<Skill> skills = new ArrayList<>();
+    private transient volatile State state = State.EMPTY;
 
     // Constructor is required for user creation/registration
     public UserProfile(String fullName, String password, String userId) {
@@ -19,14 +115,116 @@ public class UserProfile implements Serializable {
         this.userId = userId;
     }
 
-    public void addSkill(String name, String type, int proficiency) {
-        // Encapsulation: The list is manipulated internally
-        skills.add(new Skill(name, type, proficiency));
+    // Returns false if a skill with the same name (ignoring case and aliases) and type already exists.
+    // Text naming several skills ("Java/HTML/CSS") adds each of them; false only if it adds none.
+    public boolean addSkill(String name, String type, int proficiency) {
+        int[] keys = SkillDictionary.keys(name, type);
+        int[] proficiencies = new int[keys.length];
+        Arrays.fill(proficiencies, proficiency);
+        return addSkills(keys, proficiencies, keys.length) > 0;
+    }
+
+    // Adds the first count skills given as SkillDictionary keys, skipping ones the profile already has,
+    // in a single change; returns how many were added
+    public synchronized int addSkills(int[] skillKeys, int[] proficiencies, int count) {
+        State current = state;
+        int size = current.skillKeys.length;
+        int[] keys = Arrays.copyOf(current.skillKeys, size + count);
+        byte[] levels = Arrays.copyOf(current.proficiencies, size + count);
+        // Skills added in this call are checked against each other through a temporary index when there are many
+        SkillKeyIndex adding = count > SCAN_LIMIT ? new SkillKeyIndex(count) : null;
+        int added = 0;
+        for (int i = 0; i < count; i++) {
+            int key = skillKeys[i];
+            if (current.indexOf(key) >= 0) {
+                continue;
+            }
+            if (adding != null ? adding.get(key) < 0 : indexOf(keys, size, size + added, key) < 0) {
+                if (adding != null) {
+                    adding.put(key, 0);
+                }
+                keys[size + added] = skillKeys[i];
+                levels[size + added] = toByte(proficiencies[i]);
+                added++;
+            }
+        }
+        if (added == 0) {
+            return 0;
+        }
+        // Encapsulation: The skills are only changed internally, by publishing a new state
+        if (added < count) {
+            keys = Arrays.copyOf(keys, size + added);
+            levels = Arrays.copyOf(levels, size + added);
+        }
+        state = new State(current.field, keys, levels);
+        return added;
+    }
+
+    public boolean hasSkill(String name, String type) {
+        int key = SkillDictionary.lookupKey(name, type);
+        return key >= 0 && state.indexOf(key) >= 0;
+    }
+
+    // Returns the proficiency for the skill, or 0 if the user does not have it
+    public int getProficiency(String name, String type) {
+        int key = SkillDictionary.lookupKey(name, type);
+        return key < 0 ? 0 : getProficiency(key);
+    }
+
+    // Same lookup by precompiled SkillDictionary key, no string hashing
+    public int getProficiency(int skillKey) {
+        State current = state;
+        int position = current.indexOf(skillKey);
+        return position < 0 ? 0 : current.proficiencies[position];
     }
 
-    // Encapsulation: Provides controlled access to the skills list
+    // Removes the named skill, or each skill of a composite name; false if the profile had none of them
+    public synchronized boolean removeSkill(String name, String type) {
+        State current = state;
+        int[] keys = current.skillKeys;
+        byte[] levels = current.proficiencies;
+        for (int key : SkillDictionary.lookupKeys(name, type)) {
+            int position = keys == current.skillKeys ? current.indexOf(key) : indexOf(keys, 0, keys.length, key);
+            if (position < 0) {
+                continue;
+            }
+            // Move the last skill into the freed slot, as before
+            int last = keys.length - 1;
+            int[] remainingKeys = Arrays.copyOf(keys, last);
+            byte[] remainingLevels = Arrays.copyOf(levels, last);
+            if (position != last) {
+                remainingKeys[position] = keys[last];
+                remainingLevels[position] = levels[last];
+            }
+            keys = remainingKeys;
+            levels = remainingLevels;
+        }
+        if (keys == current.skillKeys) {
+            return false;
+        }
+        state = new State(current.field, keys, levels);
+        return true;
+    }
+
+    // Encapsulation: Provides read-only access to the skills, changes go through add/removeSkill.
+    // The list is a snapshot: it does not change when the profile does. Names are spelled as the
+    // SkillDictionary first saw them.
     public List<Skill> getSkills() {
-        return skills;
+        return new SkillView(state);
+    }
+
+    // Primitive access by position, without creating Skill objects. Positions shift when skills are removed,
+    // so iterate over a copy() when the profile may change meanwhile.
+    public int getSkillCount() {
+        return state.skillKeys.length;
+    }
+
+    public int getSkillKey(int index) {
+        return state.skillKeys[index];
+    }
+
+    public int getSkillProficiency(int index) {
+        return state.proficiencies[index];
     }
 
     public String getUserId() {
@@ -41,11 +239,79 @@ public class UserProfile implements Serializable {
         return fullName;
     }
 
-    public void setField(String field) {
-        this.field = field;
+    public synchronized void setField(String field) {
+        State current = state;
+        state = new State(field, current.skillKeys, current.proficiencies, current);
     }
 
     public String getField() {
-        return field;
+        return state.field;
+    }
+
+    // Changes whenever a skill or the field changes; a copy() has the version of the state it shares
+    public long getVersion() {
+        return state.version;
+    }
+
+    // Detached point-in-time copy, e.g. to write a profile out while the original keeps changing.
+    // Takes no lock and constant time: the copy shares the current immutable state.
+    public UserProfile copy() {
+        UserProfile copy = new UserProfile(fullName, password, userId);
+        copy.state = state;
+        return copy;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        State current = state;
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("userId", userId);
+        fields.put("fullName", fullName);
+        fields.put("field", current.field);
+        fields.put("password", password);
+        fields.put("skills", new ArrayList<>(new SkillView(current)));
+        out.writeFields();
+    }
+
+    // File Handling: Rebuild the compact skill arrays (dropping any legacy duplicates) on load
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        userId = (String) fields.get("userId", null);
+        fullName = (String) fields.get("fullName", null);
+        password = (String) fields.get("password", null);
+        state = State.EMPTY;
+        setField((String) fields.get("field", null));
+        List<Skill> loaded = (List<Skill>) fields.get("skills", null);
+        if (loaded != null) {
+            // Split and resolved by alias as UserProfile.addSkill does, so "Java/HTML/CSS" becomes three skills
+            int[] keys = new int[loaded.size()];
+            int[] levels = new int[loaded.size()];
+            int count = 0;
+            for (Skill skill : loaded) {
+                for (int key : SkillDictionary.keys(skill.getName(), skill.getType())) {
+                    if (count == keys.length) {
+                        keys = Arrays.copyOf(keys, count * 2);
+                        levels = Arrays.copyOf(levels, count * 2);
+                    }
+                    keys[count] = key;
+                    levels[count++] = skill.getProficiency();
+                }
+            }
+            addSkills(keys, levels, count);
+        }
+    }
+
+    private static int indexOf(int[] keys, int from, int to, int key) {
+        for (int i = from; i < to; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Proficiencies are 1-10; anything outside a byte is clamped rather than wrapped
+    private static byte toByte(int proficiency) {
+        return (byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, proficiency));
     }
-}
\ No newline at end of file
+}
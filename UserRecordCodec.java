@@ -0,0 +1,552 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// File Handling: Compact, versioned binary format for user profiles, read and written through buffered NIO channels.
+//
+// Layout:
+//   header  : magic (int) | format version (short: major in the high byte, minor in the low byte)
+//             | header length (short) | header fields
+//             v1 header fields: user count (int)
+//             v2 header fields: user count (int) | index offset (long)
+//   strings : count (varint) | count x [byte length (varint) | UTF-8 bytes]     -- skill names and types
+//   records : user count x [record length (varint) | record body]
+//   body    : userId | fullName | password | field (nullable) | skill count (varint)
+//             | skill count x [name index (varint) | type index (varint) | proficiency (varint)]
+//   index   : (v2) entry count (int) | entries x [userId hash (long) | record offset (long)], sorted by hash
+//
+// Readers skip header fields and record bytes they do not know about, so a later minor version can append
+// fields without breaking older readers; a file with a newer major version is rejected. v1 and v2 are
+// minor versions 1 and 2 of major version 0.
+public class UserRecordCodec {
+
+    private static final int MAGIC = 0x534B415A; // "SKAZ"
+    public static final short FORMAT_VERSION = 2;
+    // The major version only changes for layouts older readers cannot skip over
+    private static final int FORMAT_MAJOR = FORMAT_VERSION >> 8;
+    private static final int V2_HEADER_LENGTH = 12;
+    // Header fields start after magic, version and header length
+    private static final int HEADER_FIELDS_POSITION = 8;
+    static final int INDEX_ENTRY_SIZE = 16;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public static void write(Path file, Map<String, UserProfile> users) throws IOException {
+        // String table: every distinct skill name and type is stored once and referenced by index
+        List<UserProfile> snapshots = snapshots(users.values());
+        Map<String, Integer> stringTable = new LinkedHashMap<>();
+        addStrings(stringTable, snapshots);
+
+        try (Writer writer = new Writer(file, stringTable)) {
+            for (UserProfile user : snapshots) {
+                writer.writeUser(user);
+            }
+            writer.finish();
+        }
+    }
+
+    public static Map<String, UserProfile> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+            Header header = readHeader(in, file);
+            String[] strings = readStrings(in);
+
+            Map<String, UserProfile> users = new HashMap<>(Math.max(16, (int) (header.userCount / 0.75f) + 1));
+            for (int i = 0; i < header.userCount; i++) {
+                int recordLength = in.getVarint();
+                in.require(recordLength);
+                ByteBuffer body = in.buffer.slice();
+                body.limit(recordLength);
+                in.buffer.position(in.buffer.position() + recordLength);
+
+                UserProfile user = decode(body, strings);
+                users.put(user.getUserId(), user);
+            }
+            return users;
+        }
+    }
+
+    // Writes a new snapshot to target holding every record of base, with the changed profiles
+    // replacing or adding to them. Unchanged records are copied byte for byte without decoding.
+    public static void merge(UserSnapshot base, Collection<UserProfile> profiles, Path target) throws IOException {
+        merge(base, profiles, Collections.emptyList(), Collections.emptyMap(), target);
+    }
+
+    // Same, then adds the records of imported snapshots (bulk import batches), which replace both. latest maps
+    // every userId in them to the index of the last snapshot holding it; only that one of the user's records is kept.
+    // Imported records are copied with their string references renumbered, again without decoding them.
+    public static void merge(UserSnapshot base, Collection<UserProfile> profiles, List<UserSnapshot> imported,
+                             Map<String, Integer> latest, Path target) throws IOException {
+        List<UserProfile> changed = snapshots(profiles);
+        Set<String> changedIds = new HashSet<>();
+        for (UserProfile user : changed) {
+            changedIds.add(user.getUserId());
+        }
+
+        // Keep the base table as a prefix so copied records still reference the right strings
+        Map<String, Integer> stringTable = new LinkedHashMap<>();
+        for (String value : base.getStrings()) {
+            stringTable.putIfAbsent(value, stringTable.size());
+        }
+        addStrings(stringTable, changed);
+        int[][] remaps = new int[imported.size()][];
+        for (int i = 0; i < imported.size(); i++) {
+            List<String> strings = imported.get(i).getStrings();
+            remaps[i] = new int[strings.size()];
+            for (int s = 0; s < strings.size(); s++) {
+                stringTable.putIfAbsent(strings.get(s), stringTable.size());
+                remaps[i][s] = stringTable.get(strings.get(s));
+            }
+        }
+
+        try (Writer writer = new Writer(target, stringTable)) {
+            base.forEachRecord((userId, body) -> {
+                if (!changedIds.contains(userId) && !latest.containsKey(userId)) {
+                    writer.writeRaw(userId, body);
+                }
+            });
+            for (UserProfile user : changed) {
+                if (!latest.containsKey(user.getUserId())) {
+                    writer.writeUser(user);
+                }
+            }
+            for (int i = 0; i < imported.size(); i++) {
+                int index = i;
+                int[] remap = remaps[i];
+                imported.get(i).forEachRecord((userId, body) -> {
+                    if (latest.get(userId) == index) {
+                        writer.writeRemapped(userId, body, remap);
+                    }
+                });
+            }
+            writer.finish();
+        }
+    }
+
+    // Point-in-time copies, so the string table covers exactly the skills written even if a profile changes meanwhile
+    private static List<UserProfile> snapshots(Collection<UserProfile> users) {
+        List<UserProfile> snapshots = new ArrayList<>(users.size());
+        for (UserProfile user : users) {
+            snapshots.add(user.copy());
+        }
+        return snapshots;
+    }
+
+    private static void addStrings(Map<String, Integer> stringTable, Collection<UserProfile> users) {
+        for (UserProfile user : users) {
+            for (int s = 0; s < user.getSkillCount(); s++) {
+                stringTable.putIfAbsent(SkillDictionary.nameOfKey(user.getSkillKey(s)), stringTable.size());
+                stringTable.putIfAbsent(SkillDictionary.typeOfKey(user.getSkillKey(s)), stringTable.size());
+            }
+        }
+    }
+
+    static Header readHeader(Input in, Path file) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException(file + " is not a user data file");
+        }
+        Header header = new Header();
+        header.version = in.getShort();
+        int major = (header.version & 0xFFFF) >> 8;
+        if (major > FORMAT_MAJOR) {
+            throw new IOException(file + " has format version " + major + "." + (header.version & 0xFF)
+                    + ", newest supported is " + FORMAT_MAJOR + ".x");
+        }
+        int headerLength = in.getShort();
+        in.require(headerLength);
+        int start = in.buffer.position();
+        header.userCount = in.buffer.getInt();
+        if (headerLength >= V2_HEADER_LENGTH) {
+            header.indexOffset = in.buffer.getLong();
+        }
+        // Skip header fields added by newer writers
+        in.buffer.position(start + headerLength);
+        return header;
+    }
+
+    static String[] readStrings(Input in) throws IOException {
+        String[] strings = new String[in.getVarint()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = in.getString();
+        }
+        return strings;
+    }
+
+    static UserProfile decode(ByteBuffer body, String[] strings) throws IOException {
+        Input in = new Input(body);
+        String userId = in.getString();
+        UserProfile user = new UserProfile(in.getString(), in.getString(), userId);
+        user.setField(in.getNullableString());
+        int skillCount = in.getVarint();
+        int[] skillKeys = new int[skillCount];
+        int[] proficiencies = new int[skillCount];
+        int count = 0;
+        for (int s = 0; s < skillCount; s++) {
+            // Names written by earlier versions may be aliases or composites, resolve them like addSkill does
+            int[] keys = SkillDictionary.keys(strings[in.getVarint()], strings[in.getVarint()]);
+            int proficiency = in.getVarint();
+            if (count + keys.length > skillKeys.length) {
+                skillKeys = Arrays.copyOf(skillKeys, count + keys.length + skillCount - s);
+                proficiencies = Arrays.copyOf(proficiencies, skillKeys.length);
+            }
+            for (int key : keys) {
+                skillKeys[count] = key;
+                proficiencies[count++] = proficiency;
+            }
+        }
+        user.addSkills(skillKeys, proficiencies, count);
+        // Anything left in the body was appended by a newer writer and is ignored
+        return user;
+    }
+
+    // Reads only the userId at the start of a record body, without moving the body's position
+    static String decodeUserId(ByteBuffer body) throws IOException {
+        return new Input(body.duplicate()).getString();
+    }
+
+    // 64-bit FNV-1a over the id's characters; collisions are resolved by comparing the stored id
+    static long hash(String userId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < userId.length(); i++) {
+            hash ^= userId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    static class Header {
+        short version;
+        int userCount;
+        long indexOffset; // 0 for v1 files, which have no index
+    }
+
+    // Streams records to a new file and appends the userId index when finished
+    private static class Writer implements Closeable {
+        private final FileChannel channel;
+        private final Output out;
+        private final Output record = new Output(null);
+        private final Map<String, Integer> stringTable;
+        private long[] hashes = new long[1024];
+        private long[] offsets = new long[1024];
+        private int count;
+
+        Writer(Path file, Map<String, Integer> stringTable) throws IOException {
+            this.stringTable = stringTable;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.out = new Output(channel);
+            out.putInt(MAGIC);
+            out.putShort(FORMAT_VERSION);
+            out.putShort((short) V2_HEADER_LENGTH);
+            out.putInt(0); // User count and index offset are filled in by finish()
+            out.putLong(0);
+
+            out.putVarint(stringTable.size());
+            for (String value : stringTable.keySet()) {
+                out.putString(value);
+            }
+        }
+
+        // user must not change while it is written, pass a copy()
+        void writeUser(UserProfile user) throws IOException {
+            record.buffer.clear();
+            record.putString(user.getUserId());
+            record.putString(user.getFullName());
+            record.putString(user.getPassword());
+            record.putNullableString(user.getField());
+            record.putVarint(user.getSkillCount());
+            for (int s = 0; s < user.getSkillCount(); s++) {
+                int key = user.getSkillKey(s);
+                record.putVarint(stringTable.get(SkillDictionary.nameOfKey(key)));
+                record.putVarint(stringTable.get(SkillDictionary.typeOfKey(key)));
+                record.putVarint(user.getSkillProficiency(s));
+            }
+            record.buffer.flip();
+            writeRaw(user.getUserId(), record.buffer);
+        }
+
+        // A record from a snapshot with another string table; remap turns its string indexes into ours
+        void writeRemapped(String userId, ByteBuffer body, int[] remap) throws IOException {
+            Input in = new Input(body);
+            record.buffer.clear();
+            record.putString(in.getString());
+            record.putString(in.getString());
+            record.putString(in.getString());
+            record.putNullableString(in.getNullableString());
+            int skillCount = in.getVarint();
+            record.putVarint(skillCount);
+            for (int s = 0; s < skillCount; s++) {
+                record.putVarint(remap[in.getVarint()]);
+                record.putVarint(remap[in.getVarint()]);
+                record.putVarint(in.getVarint());
+            }
+            record.buffer.flip();
+            writeRaw(userId, record.buffer);
+        }
+
+        void writeRaw(String userId, ByteBuffer body) throws IOException {
+            if (count == hashes.length) {
+                hashes = Arrays.copyOf(hashes, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            hashes[count] = hash(userId);
+            offsets[count] = out.position();
+            count++;
+            out.putVarint(body.remaining());
+            out.put(body);
+        }
+
+        void finish() throws IOException {
+            sortByHash(hashes, offsets, 0, count - 1);
+            long indexOffset = out.position();
+            out.putInt(count);
+            for (int i = 0; i < count; i++) {
+                out.putLong(hashes[i]);
+                out.putLong(offsets[i]);
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(V2_HEADER_LENGTH);
+            header.putInt(count).putLong(indexOffset).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, HEADER_FIELDS_POSITION + header.position());
+            }
+            channel.force(false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        // Quicksort of the index entries by hash, moving each offset along with its hash
+        private static void sortByHash(long[] keys, long[] values, int low, int high) {
+            while (low < high) {
+                long pivot = keys[(low + high) >>> 1];
+                int i = low;
+                int j = high;
+                while (i <= j) {
+                    while (keys[i] < pivot) i++;
+                    while (keys[j] > pivot) j--;
+                    if (i <= j) {
+                        long key = keys[i];
+                        keys[i] = keys[j];
+                        keys[j] = key;
+                        long value = values[i];
+                        values[i] = values[j];
+                        values[j] = value;
+                        i++;
+                        j--;
+                    }
+                }
+                // Recurse into the smaller half to bound the stack depth
+                if (j - low < high - i) {
+                    sortByHash(keys, values, low, j);
+                    low = i;
+                } else {
+                    sortByHash(keys, values, i, high);
+                    high = j;
+                }
+            }
+        }
+    }
+
+    // Growable write buffer; drains to the channel when one is attached, otherwise just grows
+    private static class Output {
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private long flushed; // Bytes already written to the channel
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        // Absolute file position of the next byte written
+        long position() {
+            return flushed + buffer.position();
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            if (channel != null) {
+                flush();
+            }
+            if (buffer.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                flushed += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void putShort(short value) throws IOException {
+            ensure(2);
+            buffer.putShort(value);
+        }
+
+        void put(ByteBuffer bytes) throws IOException {
+            ensure(bytes.remaining());
+            buffer.put(bytes);
+        }
+
+        void putVarint(int value) throws IOException {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putVarint(bytes.length);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        // Length is stored +1 so that 0 can mean null
+        void putNullableString(String value) throws IOException {
+            if (value == null) {
+                putVarint(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putVarint(bytes.length + 1);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    // Read buffer that refills from the channel on demand, or reads a single in-memory buffer
+    static class Input {
+        private final FileChannel channel;
+        // File position of the first byte, or -1 to read from the channel's own position (which starts at 0)
+        private final long start;
+        ByteBuffer buffer;
+        private long consumed; // Bytes read from the channel so far
+
+        Input(FileChannel channel) {
+            this(channel, -1);
+        }
+
+        // Reads on from start with positional reads, which leave the channel's position alone, so other threads
+        // can read the same channel meanwhile
+        Input(FileChannel channel, long start) {
+            this.channel = channel;
+            this.start = start;
+            this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.flip(); // Start empty
+        }
+
+        Input(ByteBuffer bytes) {
+            this.channel = null;
+            this.start = -1;
+            this.buffer = bytes;
+        }
+
+        // Absolute file position of the next byte to be read
+        long position() {
+            return Math.max(0, start) + consumed - buffer.remaining();
+        }
+
+        // Makes sure at least the given number of bytes is buffered
+        void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            if (channel == null) {
+                throw new EOFException("Truncated user record");
+            }
+            if (buffer.capacity() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, bytes));
+                larger.put(buffer);
+                buffer = larger;
+            } else {
+                buffer.compact();
+            }
+            while (buffer.position() < bytes) {
+                int read = start < 0 ? channel.read(buffer) : channel.read(buffer, start + consumed);
+                if (read < 0) {
+                    throw new EOFException("Unexpected end of user data file");
+                }
+                consumed += read;
+            }
+            buffer.flip();
+        }
+
+        int getInt() throws IOException {
+            require(4);
+            return buffer.getInt();
+        }
+
+        short getShort() throws IOException {
+            require(2);
+            return buffer.getShort();
+        }
+
+        int getVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                require(1);
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in user data file");
+        }
+
+        String getString() throws IOException {
+            return readUtf8(getVarint());
+        }
+
+        String getNullableString() throws IOException {
+            int length = getVarint();
+            return length == 0 ? null : readUtf8(length - 1);
+        }
+
+        private String readUtf8(int length) throws IOException {
+            require(length);
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// File Handling: Random access to a user_data.bin snapshot. Only the header and string table are read
+// when it is opened; single profiles are found through the on-disk userId index and decoded on demand,
+// so opening it costs the same for ten users as for a million.
+// Readers on other threads retain() the snapshot for the duration of a read; close() leaves the file open until
+// the last of them has released it, so a write-back can swap in a new snapshot without waiting for readers.
+public class UserSnapshot implements Closeable {
+
+    private final Path file;
+    private final FileChannel channel; // null for a snapshot that does not exist yet
+    private final String[] strings;
+    private final int userCount;
+    private final long indexOffset;
+    private final long recordsStart;
+    // The owner's reference plus one per retain(); the file is closed when this drops to 0
+    private final AtomicInteger references = new AtomicInteger(1);
+    private boolean closed; // Guarded by this
+
+    private UserSnapshot(Path file, FileChannel channel, String[] strings, int userCount, long indexOffset, long recordsStart) {
+        this.file = file;
+        this.channel = channel;
+        this.strings = strings;
+        this.userCount = userCount;
+        this.indexOffset = indexOffset;
+        this.recordsStart = recordsStart;
+    }
+
+    public static UserSnapshot empty(Path file) {
+        return new UserSnapshot(file, null, new String[0], 0, 0, 0);
+    }
+
+    // A missing file opens as an empty snapshot
+    public static UserSnapshot open(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return empty(file);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            UserRecordCodec.Input in = new UserRecordCodec.Input(channel);
+            UserRecordCodec.Header header = UserRecordCodec.readHeader(in, file);
+            String[] strings = UserRecordCodec.readStrings(in);
+            return new UserSnapshot(file, channel, strings, header.userCount, header.indexOffset, in.position());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Files written before format v2 have no index and must be rewritten before lazy lookups work
+    public boolean hasIndex() {
+        return channel == null || indexOffset > 0;
+    }
+
+    public int getUserCount() {
+        return userCount;
+    }
+
+    public List<String> getStrings() {
+        return Arrays.asList(strings);
+    }
+
+    public boolean contains(String userId) throws IOException {
+        return findRecord(userId) != null;
+    }
+
+    // Returns the stored profile, or null if the snapshot does not contain the user
+    public UserProfile load(String userId) throws IOException {
+        ByteBuffer body = findRecord(userId);
+        return body == null ? null : UserRecordCodec.decode(body, strings);
+    }
+
+    // Binary search over the sorted (hash, offset) index, then compare ids for the entries with that hash
+    private ByteBuffer findRecord(String userId) throws IOException {
+        if (channel == null || userCount == 0) {
+            return null;
+        }
+        if (!hasIndex()) {
+            throw new IOException(file + " has no userId index, it has to be rewritten first");
+        }
+        long hash = UserRecordCodec.hash(userId);
+        long entriesStart = indexOffset + 4;
+        ByteBuffer entry = ByteBuffer.allocate(UserRecordCodec.INDEX_ENTRY_SIZE);
+
+        // Lower bound: first entry whose hash is >= the one we look for
+        int low = 0;
+        int high = userCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            readFully(entry, entriesStart + (long) mid * UserRecordCodec.INDEX_ENTRY_SIZE);
+            if (entry.getLong(0) < hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        for (int i = low; i < userCount; i++) {
+            readFully(entry, entriesStart + (long) i * UserRecordCodec.INDEX_ENTRY_SIZE);
+            if (entry.getLong(0) != hash) {
+                break;
+            }
+            ByteBuffer body = readRecord(entry.getLong(8));
+            if (UserRecordCodec.decodeUserId(body).equals(userId)) {
+                return body;
+            }
+        }
+        return null;
+    }
+
+    private ByteBuffer readRecord(long offset) throws IOException {
+        // The length varint is at most 5 bytes; read them and decode it
+        ByteBuffer lengthBytes = ByteBuffer.allocate(5);
+        channel.read(lengthBytes, offset);
+        lengthBytes.flip();
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (!lengthBytes.hasRemaining()) {
+                throw new EOFException("Truncated record in " + file);
+            }
+            b = lengthBytes.get();
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+
+        ByteBuffer body = ByteBuffer.allocate(length);
+        readFully(body, offset + lengthBytes.position());
+        return body;
+    }
+
+    // Positional reads do not move the channel, so lookups can run while a compaction streams the file
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of " + file);
+            }
+        }
+        buffer.flip();
+    }
+
+    // Streams every record in file order, with positional reads of this snapshot's file (the path may already
+    // name a newer one)
+    public void forEachRecord(RecordVisitor visitor) throws IOException {
+        if (channel == null) {
+            return;
+        }
+        UserRecordCodec.Input in = new UserRecordCodec.Input(channel, recordsStart);
+        for (int i = 0; i < userCount; i++) {
+            int recordLength = in.getVarint();
+            in.require(recordLength);
+            ByteBuffer body = in.buffer.slice();
+            body.limit(recordLength);
+            in.buffer.position(in.buffer.position() + recordLength);
+            visitor.visit(UserRecordCodec.decodeUserId(body), body);
+        }
+    }
+
+    // Keeps the file open until release(); false if the snapshot has been closed already
+    public boolean retain() {
+        int count;
+        do {
+            count = references.get();
+            if (count == 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    public void release() throws IOException {
+        if (references.decrementAndGet() == 0 && channel != null) {
+            channel.close();
+        }
+    }
+
+    // Gives up the owner's reference; the file closes once no reader retains it any more
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        release();
+    }
+
+    public interface RecordVisitor {
+        void visit(String userId, ByteBuffer body) throws IOException;
+    }
+}
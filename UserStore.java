@@ -0,0 +1,30 @@
+import java.io.IOException;
+
+// Encapsulation: Where registered users live and how they change. Safe to use from several threads at once:
+// lookups take no global lock, and changes to different users run in parallel. find returns the same profile to
+// every caller for as long as any of them holds it, so changes made through it are never lost to another copy.
+// Every change goes through the store, so the stored copy of a profile never lags behind the one in memory.
+public interface UserStore {
+
+    boolean exists(String userId);
+
+    // The user's profile, or null if there is no such user
+    UserProfile find(String userId);
+
+    // Creates and stores a new user under a freshly allocated ID
+    UserProfile register(String fullName, String password) throws IOException;
+
+    // Returns false (and stores nothing) if the user already has the skill
+    boolean addSkill(UserProfile user, String name, String type, int proficiency);
+
+    // Returns false if the user does not have the skill
+    boolean removeSkill(UserProfile user, String name, String type);
+
+    void setField(UserProfile user, String field);
+
+    int size();
+
+    // Skill and gap aggregates over every stored user, kept current by each change. Null until they have been
+    // built in the background; the first call starts that.
+    PopulationStats stats();
+}
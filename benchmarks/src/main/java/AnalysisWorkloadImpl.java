@@ -0,0 +1,38 @@
+import bench.AnalysisWorkload;
+
+public class AnalysisWorkloadImpl implements AnalysisWorkload {
+
+    // Same as the Analyze page
+    private static final int TOP_PATHS = 5;
+
+    private CareerCatalog catalog;
+    private CareerPath path;
+    private UserProfile user;
+
+    @Override
+    public void setUp(int paths, int skillsPerPath) {
+        PopulationGenerator generator = new PopulationGenerator(42);
+        catalog = new CareerCatalog(generator.catalog(paths, skillsPerPath));
+        path = catalog.getPath("Career Path 1");
+        generator.setSkillCount(15, 15);
+        user = generator.nextUser();
+        // Make sure the user meets part of the analysed path
+        CareerPath.Requirement first = path.getRequirements().get(0);
+        user.addSkill(first.getName(), first.getType(), 10);
+    }
+
+    @Override
+    public Object analyze() {
+        return SkillAnalysisEngine.analyze(user, path);
+    }
+
+    @Override
+    public Object recommend() {
+        return SkillAnalysisEngine.recommend(user, catalog, TOP_PATHS);
+    }
+
+    @Override
+    public Object runAnalysis() {
+        return AnalysisReport.render(user, catalog, path, TOP_PATHS);
+    }
+}
@@ -0,0 +1,33 @@
+import bench.CatalogWorkload;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class CatalogWorkloadImpl implements CatalogWorkload {
+
+    private final Path file = Paths.get(CareerPathLoader.CAREER_PATH_FILE);
+
+    @Override
+    public void setUp(int paths, int skillsPerPath) throws IOException {
+        // loadCareerPaths() reads the file from the working directory
+        PopulationGenerator generator = new PopulationGenerator(42);
+        Files.write(file, PopulationGenerator.catalogLines(generator.catalog(paths, skillsPerPath)));
+    }
+
+    @Override
+    public Object loadCareerPaths() {
+        return CareerPathLoader.loadCareerPaths();
+    }
+
+    @Override
+    public Object loadCatalog() {
+        return CareerPathLoader.loadCatalog();
+    }
+
+    @Override
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,40 @@
+import bench.LookupWorkload;
+
+public class LookupWorkloadImpl implements LookupWorkload {
+
+    private UserProfile user;
+    private String[] presentNames;
+    private String[] presentTypes;
+    private String[] absentNames;
+    private int next;
+
+    @Override
+    public void setUp(int skills) {
+        PopulationGenerator generator = new PopulationGenerator(42);
+        // Uniform skill popularity, so a profile can get 100 distinct skills from the vocabulary
+        generator.setSkillVocabulary(200, 40, 0);
+        generator.setSkillCount(skills, skills);
+        user = generator.nextUser();
+        presentNames = new String[skills];
+        presentTypes = new String[skills];
+        absentNames = new String[skills];
+        for (int i = 0; i < skills; i++) {
+            Skill skill = user.getSkills().get(i);
+            presentNames[i] = skill.getName();
+            presentTypes[i] = skill.getType();
+            absentNames[i] = "Missing Skill " + i;
+        }
+    }
+
+    @Override
+    public int findPresent() {
+        int i = next++ % presentNames.length;
+        return SkillAnalysisEngine.findSkillProficiency(user, presentNames[i], presentTypes[i]);
+    }
+
+    @Override
+    public int findAbsent() {
+        int i = next++ % absentNames.length;
+        return SkillAnalysisEngine.findSkillProficiency(user, absentNames[i], "Technical");
+    }
+}
@@ -0,0 +1,47 @@
+import bench.PersistenceWorkload;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+public class PersistenceWorkloadImpl implements PersistenceWorkload {
+
+    private static final int SKILLS_PER_USER = 8;
+
+    private Map<String, UserProfile> users;
+
+    @Override
+    public void setUp(int count) throws IOException {
+        deleteDataFiles();
+        PopulationGenerator generator = new PopulationGenerator(42);
+        generator.setSkillCount(SKILLS_PER_USER, SKILLS_PER_USER);
+        users = generator.population(count);
+        // loadUsers() reads what this wrote
+        UserPersistence.saveUsers(users);
+    }
+
+    @Override
+    public Object loadUsers() {
+        return UserPersistence.loadUsers();
+    }
+
+    @Override
+    public void saveUsers() {
+        UserPersistence.saveUsers(users);
+    }
+
+    @Override
+    public void tearDown() throws IOException {
+        UserPersistence.close();
+        deleteDataFiles();
+    }
+
+    private static void deleteDataFiles() throws IOException {
+        for (String name : new String[]{"user_data.bin", "user_data.bin.tmp", "user_data.journal", "user_data.journal.compacting"}) {
+            Path file = Paths.get(name);
+            Files.deleteIfExists(file);
+        }
+    }
+}
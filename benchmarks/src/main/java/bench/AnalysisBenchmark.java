@@ -0,0 +1,55 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// The Analyze page's work for one click, headless: scoring, ranking and the report text
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalysisBenchmark {
+
+    @Param({"12", "1000"})
+    public int paths;
+
+    @Param({"2", "20"})
+    public int skillsPerPath;
+
+    private AnalysisWorkload workload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        workload = Workloads.create(AnalysisWorkload.class);
+        workload.setUp(paths, skillsPerPath);
+    }
+
+    @Benchmark
+    public Object analyze() {
+        return workload.analyze();
+    }
+
+    @Benchmark
+    public Object recommend() {
+        return workload.recommend();
+    }
+
+    @Benchmark
+    public Object runAnalysis() {
+        return workload.runAnalysis();
+    }
+}
@@ -0,0 +1,14 @@
+package bench;
+
+public interface AnalysisWorkload {
+    void setUp(int paths, int skillsPerPath);
+
+    // Score and breakdown for one path
+    Object analyze();
+
+    // Top paths for the user through the inverted index
+    Object recommend();
+
+    // Everything the Analyze page does for one click, including the report text
+    Object runAnalysis();
+}
@@ -0,0 +1,58 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Parsing career_paths.txt, and building the catalog with its skill -> paths index
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogBenchmark {
+
+    // 12 is the shipped catalog's size
+    @Param({"12", "1000"})
+    public int paths;
+
+    @Param({"2", "20"})
+    public int skillsPerPath;
+
+    private CatalogWorkload workload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workload = Workloads.create(CatalogWorkload.class);
+        workload.setUp(paths, skillsPerPath);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        workload.tearDown();
+    }
+
+    @Benchmark
+    public Object loadCareerPaths() {
+        return workload.loadCareerPaths();
+    }
+
+    @Benchmark
+    public Object loadCatalog() {
+        return workload.loadCatalog();
+    }
+}
@@ -0,0 +1,13 @@
+package bench;
+
+import java.io.IOException;
+
+public interface CatalogWorkload {
+    void setUp(int paths, int skillsPerPath) throws IOException;
+
+    Object loadCareerPaths();
+
+    Object loadCatalog();
+
+    void tearDown() throws IOException;
+}
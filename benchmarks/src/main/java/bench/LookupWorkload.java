@@ -0,0 +1,10 @@
+package bench;
+
+public interface LookupWorkload {
+    void setUp(int skills);
+
+    // Each call looks up the next skill of a fixed rotation, so the JIT cannot fold the lookup away
+    int findPresent();
+
+    int findAbsent();
+}
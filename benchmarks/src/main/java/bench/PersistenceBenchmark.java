@@ -0,0 +1,55 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Full-population load and save through UserPersistence. Each call is a whole pass over the file, so every
+// invocation is timed on its own. Runs in the working directory set up by the jmh task.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+public class PersistenceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int users;
+
+    private PersistenceWorkload workload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workload = Workloads.create(PersistenceWorkload.class);
+        workload.setUp(users);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        workload.tearDown();
+    }
+
+    @Benchmark
+    public Object loadUsers() {
+        return workload.loadUsers();
+    }
+
+    @Benchmark
+    public void saveUsers() {
+        workload.saveUsers();
+    }
+}
@@ -0,0 +1,13 @@
+package bench;
+
+import java.io.IOException;
+
+public interface PersistenceWorkload {
+    void setUp(int users) throws IOException;
+
+    Object loadUsers();
+
+    void saveUsers();
+
+    void tearDown() throws IOException;
+}
@@ -0,0 +1,18 @@
+package bench;
+
+// The application classes live in the default package, which a named package cannot import, and JMH only
+// accepts benchmarks in a named package. So each benchmark drives a workload interface declared here, implemented
+// by a default-package class named <interface>Impl that is looked up once per trial, outside the measured code.
+final class Workloads {
+
+    private Workloads() {
+    }
+
+    static <T> T create(Class<T> type) {
+        try {
+            return type.cast(Class.forName(type.getSimpleName() + "Impl").getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No implementation for " + type.getSimpleName(), e);
+        }
+    }
+}
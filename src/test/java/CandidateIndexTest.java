@@ -0,0 +1,120 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CandidateIndexTest {
+
+    private static final String[] SKILLS = {"Java", "Python", "SQL", "Go", "Rust", "Docker", "Kubernetes", "Linux"};
+    private static final String[] SOFT_SKILLS = {"Teamwork", "Communication", "Leadership"};
+
+    private final Random random = new Random(7);
+
+    @Test
+    void topCandidatesMatchAFullScan() {
+        Map<String, UserProfile> users = population(300);
+        CandidateIndex index = new CandidateIndex();
+        for (UserProfile user : users.values()) {
+            index.addUser(user);
+        }
+        assertEquals(users.size(), index.getUserCount());
+
+        for (CareerPath path : paths()) {
+            for (int k : new int[]{1, 5, 40, 1000}) {
+                assertMatchesScan(path, k, index.topCandidates(path, k), users);
+            }
+        }
+    }
+
+    @Test
+    void followsChangesToTheProfiles() {
+        Map<String, UserProfile> users = population(200);
+        CandidateIndex index = new CandidateIndex();
+        for (UserProfile user : users.values()) {
+            index.addUser(user);
+        }
+
+        List<String> ids = new ArrayList<>(users.keySet());
+        for (int change = 0; change < 400; change++) {
+            UserProfile user = users.get(ids.get(random.nextInt(ids.size())));
+            String name = SKILLS[random.nextInt(SKILLS.length)];
+            if (random.nextBoolean()) {
+                int proficiency = 1 + random.nextInt(10);
+                user.addSkill(name, "Technical", proficiency);
+                index.addSkill(user.getUserId(), name, "Technical", proficiency);
+            } else {
+                user.removeSkill(name, "Technical");
+                index.removeSkill(user.getUserId(), name, "Technical");
+            }
+        }
+        String removed = ids.get(0);
+        users.remove(removed);
+        index.removeUser(removed);
+
+        for (CareerPath path : paths()) {
+            List<CandidateIndex.Candidate> top = index.topCandidates(path, 25);
+            assertMatchesScan(path, 25, top, users);
+            for (CandidateIndex.Candidate candidate : top) {
+                assertNotEquals(removed, candidate.getUserId());
+            }
+        }
+    }
+
+    // Same match scores as scoring everybody; users who meet no requirement are never candidates
+    private static void assertMatchesScan(CareerPath path, int k, List<CandidateIndex.Candidate> top,
+                                          Map<String, UserProfile> users) {
+        List<Integer> scores = new ArrayList<>();
+        for (UserProfile user : users.values()) {
+            int score = path.score(user);
+            if (score > 0) {
+                scores.add(score);
+            }
+        }
+        scores.sort((a, b) -> Integer.compare(b, a));
+        List<Integer> expected = scores.subList(0, Math.min(k, scores.size()));
+
+        List<Integer> actual = new ArrayList<>();
+        for (CandidateIndex.Candidate candidate : top) {
+            assertEquals(path.score(users.get(candidate.getUserId())), candidate.getMatchScore());
+            actual.add(candidate.getMatchScore());
+        }
+        assertEquals(expected, actual, path.getName() + ", k = " + k);
+    }
+
+    private Map<String, UserProfile> population(int size) {
+        Map<String, UserProfile> users = TestUsers.users();
+        for (int i = 0; i < size; i++) {
+            UserProfile user = TestUsers.profile("user" + i, null);
+            for (String skill : SKILLS) {
+                if (random.nextInt(3) == 0) {
+                    user.addSkill(skill, "Technical", 1 + random.nextInt(10));
+                }
+            }
+            user.addSkill(SOFT_SKILLS[random.nextInt(SOFT_SKILLS.length)], "Soft", 1 + random.nextInt(10));
+            users.put(user.getUserId(), user);
+        }
+        return users;
+    }
+
+    private static List<CareerPath> paths() {
+        return Arrays.asList(
+                new CareerPath("Backend", Arrays.asList(
+                        new CareerPath.Requirement("Java", "Technical", 3, 7),
+                        new CareerPath.Requirement("SQL", "Technical", 2, 5),
+                        new CareerPath.Requirement("Teamwork", "Soft", 1, 6))),
+                new CareerPath("Platform", Arrays.asList(
+                        new CareerPath.Requirement("Go", "Technical", 1, 4),
+                        new CareerPath.Requirement("Docker", "Technical", 1, 8),
+                        new CareerPath.Requirement("Kubernetes", "Technical", 2, 1),
+                        new CareerPath.Requirement("Linux", "Technical", 1, 10))),
+                // Nobody has this skill
+                new CareerPath("Research", Arrays.asList(
+                        new CareerPath.Requirement("Quantum Computing", "Technical", 1, 1))));
+    }
+}
@@ -0,0 +1,201 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PopulationStatsTest {
+
+    private static final String[] SKILLS = {"Java", "Python", "SQL", "Go", "Docker", "Kubernetes"};
+    private static final String[] SOFT_SKILLS = {"Teamwork", "Communication"};
+
+    private final Random random = new Random(11);
+
+    @Test
+    void countsMatchAFullRescan() {
+        Map<String, UserProfile> users = TestUsers.users();
+        PopulationStats stats = new PopulationStats();
+        for (int i = 0; i < 200; i++) {
+            UserProfile user = randomUser("user" + i);
+            users.put(user.getUserId(), user);
+            stats.addUser(user);
+        }
+        CareerCatalog catalog = catalog();
+        assertMatchesRescan(stats, catalog, users);
+    }
+
+    @Test
+    void followsChangesAfterTheFirstRead() {
+        Map<String, UserProfile> users = TestUsers.users();
+        PopulationStats stats = new PopulationStats();
+        for (int i = 0; i < 150; i++) {
+            UserProfile user = randomUser("user" + i);
+            users.put(user.getUserId(), user);
+            stats.addUser(user);
+        }
+        CareerCatalog catalog = catalog();
+        // Scores are kept from here on, change by change
+        stats.getPathStats(catalog, 0, 10);
+
+        List<String> ids = new ArrayList<>(users.keySet());
+        for (int change = 0; change < 600; change++) {
+            UserProfile user = users.get(ids.get(random.nextInt(ids.size())));
+            String name = SKILLS[random.nextInt(SKILLS.length)];
+            switch (random.nextInt(5)) {
+                case 0:
+                    // Registered again: replaces what was counted for the user
+                    UserProfile again = randomUser(user.getUserId());
+                    users.put(again.getUserId(), again);
+                    stats.addUser(again);
+                    break;
+                case 1:
+                case 2:
+                    int proficiency = 1 + random.nextInt(10);
+                    user.addSkill(name, "Technical", proficiency);
+                    stats.addSkill(user.getUserId(), name, "Technical", proficiency);
+                    break;
+                default:
+                    user.removeSkill(name, "Technical");
+                    stats.removeSkill(user.getUserId(), name, "Technical");
+                    break;
+            }
+        }
+        for (int i = 0; i < 10; i++) {
+            String removed = ids.get(i);
+            users.remove(removed);
+            stats.removeUser(removed);
+        }
+        assertMatchesRescan(stats, catalog, users);
+
+        // A reloaded catalog is scored from the skills counted so far
+        assertMatchesRescan(stats, catalog(), users);
+    }
+
+    @Test
+    void skillsOfAUserWhoIsNotCountedAreIgnored() {
+        PopulationStats stats = new PopulationStats();
+        stats.addUser(TestUsers.profile("ada1", null, "Java", "Technical", 8));
+        stats.addSkill("nobody", "Python", "Technical", 5);
+        stats.removeSkill("nobody", "Java", "Technical");
+        // Already held: keeps the proficiency, as the profile does
+        stats.addSkill("ada1", "Java", "Technical", 2);
+
+        List<PopulationStats.SkillDistribution> distributions = stats.getSkillDistributions(10);
+        assertEquals(1, distributions.size());
+        assertEquals("Java", distributions.get(0).getName());
+        assertEquals(1, distributions.get(0).getCount(8));
+        assertEquals(8.0, distributions.get(0).getMeanProficiency());
+    }
+
+    private static void assertMatchesRescan(PopulationStats stats, CareerCatalog catalog,
+                                            Map<String, UserProfile> users) {
+        assertEquals(users.size(), stats.getUserCount());
+
+        // Per skill: users at each proficiency
+        Map<String, long[]> expectedCounts = new HashMap<>();
+        for (UserProfile user : users.values()) {
+            for (Skill skill : user.getSkills()) {
+                expectedCounts.computeIfAbsent(skill.getName() + "|" + skill.getType(), k -> new long[11])
+                        [skill.getProficiency()]++;
+            }
+        }
+        List<PopulationStats.SkillDistribution> distributions = stats.getSkillDistributions(Integer.MAX_VALUE);
+        assertEquals(expectedCounts.size(), distributions.size());
+        for (int d = 0; d < distributions.size(); d++) {
+            PopulationStats.SkillDistribution distribution = distributions.get(d);
+            long[] expected = expectedCounts.get(distribution.getName() + "|" + distribution.getType());
+            for (int p = 1; p <= 10; p++) {
+                assertEquals(expected[p], distribution.getCount(p), distribution.getName() + " at " + p);
+            }
+            if (d > 0) {
+                assertTrue(distributions.get(d - 1).getUserCount() >= distribution.getUserCount());
+            }
+        }
+
+        for (int minScore : new int[]{0, 1, 40, 75, 100}) {
+            List<PopulationStats.PathStats> pathStats = stats.getPathStats(catalog, minScore, 10);
+            List<CareerPath> paths = new ArrayList<>(catalog.getPaths().values());
+            assertEquals(paths.size(), pathStats.size());
+            for (int j = 0; j < paths.size(); j++) {
+                CareerPath path = paths.get(j);
+                PopulationStats.PathStats actual = pathStats.get(j);
+                assertEquals(path.getName(), actual.getCareerPath());
+                assertEquals(users.size(), actual.getUserCount());
+
+                long ready = 0;
+                for (UserProfile user : users.values()) {
+                    if (path.score(user) >= minScore) {
+                        ready++;
+                    }
+                }
+                assertEquals(ready, actual.getReadyCount(), path.getName() + " at " + minScore);
+                assertEquals(gapsByRescan(path, users), gaps(actual), path.getName());
+            }
+        }
+    }
+
+    // "name|users lacking it" for every requirement somebody falls short of, sorted
+    private static List<String> gapsByRescan(CareerPath path, Map<String, UserProfile> users) {
+        List<String> gaps = new ArrayList<>();
+        for (CareerPath.Requirement requirement : path.getRequirements()) {
+            long lacking = 0;
+            for (UserProfile user : users.values()) {
+                if (user.getProficiency(requirement.getName(), requirement.getType())
+                        < requirement.getMinProficiency()) {
+                    lacking++;
+                }
+            }
+            if (lacking > 0) {
+                gaps.add(requirement.getName() + "|" + lacking);
+            }
+        }
+        gaps.sort(null);
+        return gaps;
+    }
+
+    private static List<String> gaps(PopulationStats.PathStats stats) {
+        List<String> gaps = new ArrayList<>();
+        for (int g = 0; g < stats.getGaps().size(); g++) {
+            PopulationStats.Gap gap = stats.getGaps().get(g);
+            gaps.add(gap.getName() + "|" + gap.getUserCount());
+            if (g > 0) {
+                assertTrue(stats.getGaps().get(g - 1).getUserCount() >= gap.getUserCount());
+            }
+        }
+        gaps.sort(null);
+        return gaps;
+    }
+
+    private UserProfile randomUser(String userId) {
+        UserProfile user = TestUsers.profile(userId, null);
+        for (String skill : SKILLS) {
+            if (random.nextInt(2) == 0) {
+                user.addSkill(skill, "Technical", 1 + random.nextInt(10));
+            }
+        }
+        user.addSkill(SOFT_SKILLS[random.nextInt(SOFT_SKILLS.length)], "Soft", 1 + random.nextInt(10));
+        return user;
+    }
+
+    private static CareerCatalog catalog() {
+        Map<String, CareerPath> paths = new HashMap<>();
+        paths.put("Backend", new CareerPath("Backend", Arrays.asList(
+                new CareerPath.Requirement("Java", "Technical", 3, 7),
+                new CareerPath.Requirement("SQL", "Technical", 2, 5),
+                new CareerPath.Requirement("Teamwork", "Soft", 1, 6))));
+        paths.put("Platform", new CareerPath("Platform", Arrays.asList(
+                new CareerPath.Requirement("Go", "Technical", 1, 4),
+                new CareerPath.Requirement("Docker", "Technical", 6, 8),
+                new CareerPath.Requirement("Kubernetes", "Technical", 2, 1))));
+        // Nobody has this skill
+        paths.put("Research", new CareerPath("Research", Arrays.asList(
+                new CareerPath.Requirement("Quantum Computing", "Technical", 1, 1))));
+        return new CareerCatalog(paths);
+    }
+}
@@ -0,0 +1,148 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Imports go through UserPersistence, which keeps its files in the working directory (build/test-work)
+class ProfileTransferTest {
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    @AfterEach
+    void emptyStore() {
+        UserPersistence.saveUsers(new HashMap<>());
+    }
+
+    @Test
+    void importsCsvRows() throws IOException {
+        Path file = write("users.csv",
+                "\uFEFFuserId,fullName,password,field,skill,type,proficiency",
+                "ada1,\"Lovelace, Ada\",\"pass\"\"word1\",Mathematics,Java,Technical,8",
+                "ada1,\"Lovelace, Ada\",\"pass\"\"word1\",Mathematics,\"HTML/CSS\",technical,6",
+                "ada1,\"Lovelace, Ada\",\"pass\"\"word1\",Mathematics,Teamwork,Soft,11",
+                "bob1,Bob,password2,,,,",
+                "",
+                "cy1,Cy,short,Design,Java,Technical,5",
+                "cy1,Cy,short,Design,Go,Technical,5",
+                "dee1,Dee,password4,Design,Rust,Hardware,5");
+
+        assertEquals(3, ProfileTransfer.importUsers(file, ProfileTransfer.Format.CSV));
+
+        UserProfile ada = UserPersistence.findUser("ada1");
+        assertEquals("Lovelace, Ada", ada.getFullName());
+        assertEquals("pass\"word1", ada.getPassword());
+        assertEquals("Mathematics", ada.getField());
+        assertEquals(Arrays.asList("CSS|6", "HTML|6", "Java|8"), skills(ada));
+        assertNull(UserPersistence.findUser("bob1").getField());
+        assertEquals(0, UserPersistence.findUser("bob1").getSkillCount());
+        // A rejected user is skipped with all its rows; a rejected skill only drops that row
+        assertFalse(UserPersistence.userExists("cy1"));
+        assertEquals(0, UserPersistence.findUser("dee1").getSkillCount());
+    }
+
+    @Test
+    void importsJsonLines() throws IOException {
+        Path file = write("users.jsonl",
+                "{\"userId\": \"ada1\", \"fullName\": \"Ada \\\"A\\\" L\", \"password\": \"password1\", \"field\": null,"
+                        + " \"skills\": [{\"name\": \"JS\", \"type\": \"Technical\", \"proficiency\": 7},"
+                        + " {\"name\": \"Go\", \"type\": \"Technical\", \"proficiency\": 7.5}]}",
+                "{\"userId\": \"bob1\", \"fullName\": \"Bob\", \"password\": \"password2\"",
+                "[1, 2]",
+                "{\"userId\": \"cy1\", \"fullName\": \"Cy\", \"password\": \"password3\", \"skills\": \"Java\"}",
+                "{\"userId\": \"dee1\", \"fullName\": \"D\\u00e9e\", \"password\": \"password4\", \"skills\": []}");
+
+        assertEquals(2, ProfileTransfer.importUsers(file, ProfileTransfer.Format.JSONL));
+
+        UserProfile ada = UserPersistence.findUser("ada1");
+        assertEquals("Ada \"A\" L", ada.getFullName());
+        assertNull(ada.getField());
+        assertEquals(Arrays.asList("JavaScript|7"), skills(ada));
+        assertEquals("Dée", UserPersistence.findUser("dee1").getFullName());
+        assertFalse(UserPersistence.userExists("bob1"));
+        assertFalse(UserPersistence.userExists("cy1"));
+    }
+
+    @Test
+    void laterRowsOfAUserWinAndBlankIdsGetNewOnes() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("userId,fullName,password,field,skill,type,proficiency");
+        // Enough rows to span several parsing chunks
+        for (int i = 0; i < 6000; i++) {
+            lines.add("user" + i + ",User " + i + ",password" + i + ",First,Java,Technical,3");
+            lines.add("user" + i + ",User " + i + ",password" + i + ",First,SQL,Technical,4");
+        }
+        lines.add("user7,User 7,password7,Second,Python,Technical,9");
+        lines.add(",New Hire,password9,,Go,Technical,2");
+        Path file = write("users.csv", lines.toArray(new String[0]));
+
+        assertEquals(6001, ProfileTransfer.importUsers(file, ProfileTransfer.Format.CSV));
+        assertEquals(6001, UserPersistence.getUserCount());
+        assertEquals(Arrays.asList("Java|3", "SQL|4"), skills(UserPersistence.findUser("user5999")));
+        UserProfile replaced = UserPersistence.findUser("user7");
+        assertEquals("Second", replaced.getField());
+        assertEquals(Arrays.asList("Python|9"), skills(replaced));
+    }
+
+    @Test
+    void exportedFilesImportToTheSameProfiles() throws IOException {
+        Map<String, UserProfile> users = TestUsers.users(
+                TestUsers.profile("ada1", "Math, \"pure\"", "Java", "Technical", 8, "Teamwork", "Soft", 6),
+                TestUsers.profile("bob1", null),
+                TestUsers.profile("cy1", "Design", "C++", "Technical", 10));
+        UserPersistence.saveUsers(users);
+
+        for (ProfileTransfer.Format format : ProfileTransfer.Format.values()) {
+            StringWriter out = new StringWriter();
+            assertEquals(3, ProfileTransfer.exportUsers(out, format));
+            Path file = dir.resolve("users." + format);
+            Files.write(file, out.toString().getBytes(StandardCharsets.UTF_8));
+
+            UserPersistence.saveUsers(new HashMap<>());
+            assertEquals(3, ProfileTransfer.importUsers(file, format));
+            Map<String, UserProfile> imported = new HashMap<>();
+            UserPersistence.forEachUser(user -> imported.put(user.getUserId(), user));
+            assertEquals(TestUsers.describe(users), TestUsers.describe(imported), format.toString());
+        }
+    }
+
+    @Test
+    void formatNamesIgnoreCase() {
+        assertEquals(ProfileTransfer.Format.CSV, ProfileTransfer.Format.of(" Csv "));
+        assertEquals(ProfileTransfer.Format.JSONL, ProfileTransfer.Format.of("json"));
+        assertThrows(IllegalArgumentException.class, () -> ProfileTransfer.Format.of("xml"));
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        Path file = dir.resolve(name);
+        Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    // "name|proficiency", sorted
+    private static List<String> skills(UserProfile user) {
+        List<String> skills = new ArrayList<>();
+        for (Skill skill : user.getSkills()) {
+            skills.add(skill.getName() + "|" + skill.getProficiency());
+        }
+        skills.sort(null);
+        return skills;
+    }
+}
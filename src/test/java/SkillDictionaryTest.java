@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The dictionary is shared by every test in the JVM; names made up here are unique to this class
+class SkillDictionaryTest {
+
+    @Test
+    void aliasesFromTheAliasFileResolveToTheCanonicalName() {
+        assertEquals(SkillDictionary.intern("JavaScript"), SkillDictionary.lookup("JS"));
+        assertEquals(SkillDictionary.intern("Kubernetes"), SkillDictionary.lookup("k8s"));
+        assertEquals("Python", SkillDictionary.nameOf(SkillDictionary.lookup("  python   3 ")));
+        assertEquals(SkillDictionary.lookup("Machine Learning"), SkillDictionary.lookup("machine_learning"));
+        assertEquals(SkillDictionary.lookup("javascript"), SkillDictionary.lookup("ECMAScript"));
+        assertEquals(SkillDictionary.lookup("machine_learning"), SkillDictionary.lookup("Machine-Learning"));
+    }
+
+    @Test
+    void anAliasCannotBeTakenByAnotherSkill() {
+        assertTrue(SkillDictionary.addAlias("Dictest Canonical", "Dictest Short"));
+        assertTrue(SkillDictionary.addAlias("Dictest Canonical", "dictest-short"));
+        assertFalse(SkillDictionary.addAlias("Dictest Other", "Dictest Short"));
+        assertEquals("Dictest Canonical", SkillDictionary.nameOf(SkillDictionary.intern("DICTEST SHORT")));
+    }
+
+    @Test
+    void compositeNamesSplitIntoKnownSkills() {
+        assertArrayEquals(new String[]{"Java", "HTML", "CSS"}, SkillDictionary.names("Java/HTML5, CSS3"));
+        // Parts naming the same skill count once
+        assertArrayEquals(new String[]{"JavaScript"}, SkillDictionary.names("JS/ECMAScript"));
+        // A known name is not split
+        SkillDictionary.intern("Dictest A/B Testing");
+        assertArrayEquals(new String[]{"Dictest A/B Testing"}, SkillDictionary.names("dictest a/b testing"));
+    }
+
+    @Test
+    void lookupsNeverGrowTheDictionary() {
+        int size = SkillDictionary.size();
+        assertEquals(-1, SkillDictionary.lookup("Dictest Unknown"));
+        assertEquals(0, SkillDictionary.lookupKeys("Dictest Unknown/Dictest Other Unknown", "Technical").length);
+        assertEquals(-1, SkillDictionary.lookupKey("Dictest Unknown", "Technical"));
+        assertEquals(size, SkillDictionary.size());
+
+        int[] keys = SkillDictionary.lookupKeys("Java/Dictest Unknown", "Technical");
+        assertArrayEquals(new int[]{SkillDictionary.key("Java", "Technical")}, keys);
+        assertEquals(size, SkillDictionary.size());
+    }
+
+    @Test
+    void keysCarryTheType() {
+        int technical = SkillDictionary.key("Java", "Technical");
+        int soft = SkillDictionary.key("Java", "Soft");
+        assertNotEquals(technical, soft);
+        assertEquals(SkillDictionary.nameIdOf(technical), SkillDictionary.nameIdOf(soft));
+        assertEquals("Java", SkillDictionary.nameOfKey(soft));
+        assertEquals("Soft", SkillDictionary.typeOfKey(soft));
+    }
+
+    @Test
+    void profilesAddEachSkillOfACompositeName() {
+        UserProfile user = TestUsers.profile("ada1", null);
+        assertTrue(user.addSkill("Java/HTML/CSS", "Technical", 7));
+        assertEquals(3, user.getSkillCount());
+        assertEquals(7, user.getProficiency("HTML5", "Technical"));
+        // Every part is already there
+        assertFalse(user.addSkill("css3, java", "Technical", 9));
+        assertTrue(user.removeSkill("HTML/CSS", "Technical"));
+        assertEquals(Arrays.asList("Java"), names(user));
+    }
+
+    @Test
+    void legacySerializedProfilesSplitCompositeNames() throws IOException, ClassNotFoundException {
+        UserProfile user = TestUsers.profile("ada1", "CS", "Java", "Technical", 8, "Teamwork", "Soft", 6);
+        // Profiles saved before names were split held the composite as one skill
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new LegacyOutputStream(bytes)) {
+            out.writeObject(user);
+        }
+        UserProfile read;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = (UserProfile) in.readObject();
+        }
+
+        assertEquals(Arrays.asList("CSS", "HTML", "Java", "Teamwork"), names(read));
+        assertEquals(8, read.getProficiency("CSS3", "Technical"));
+        assertEquals(-1, SkillDictionary.lookup("Java/HTML5/CSS3"));
+    }
+
+    // Writes the Java skill as "Java/HTML5/CSS3", as an old version would have stored it
+    private static class LegacyOutputStream extends ObjectOutputStream {
+        LegacyOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            if (obj instanceof Skill && ((Skill) obj).getName().equals("Java")) {
+                Skill skill = (Skill) obj;
+                return new Skill("Java/HTML5/CSS3", skill.getType(), skill.getProficiency());
+            }
+            return obj;
+        }
+    }
+
+    private static List<String> names(UserProfile user) {
+        List<String> names = new ArrayList<>();
+        for (Skill skill : user.getSkills()) {
+            names.add(skill.getName());
+        }
+        names.sort(null);
+        return names;
+    }
+}
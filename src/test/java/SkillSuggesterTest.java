@@ -0,0 +1,91 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SkillSuggesterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void suggestsPrefixesAndToleratesTypos() {
+        // Python, Kubernetes and JavaScript come from the alias file
+        SkillDictionary.intern("Java");
+        SkillSuggester suggester = new SkillSuggester();
+        assertEquals("Python", suggester.suggest("pyth", 5).get(0));
+        assertEquals("Python", suggester.suggest("Pyhton", 5).get(0));
+        assertEquals("Kubernetes", suggester.suggest("kubernets", 5).get(0));
+        assertTrue(suggester.suggest("java", 5).contains("JavaScript"));
+        assertEquals(2, suggester.suggest("java", 2).size());
+        assertTrue(suggester.suggest("", 5).isEmpty());
+        assertTrue(suggester.suggest("qqqqqqqq", 5).isEmpty());
+    }
+
+    @Test
+    void suggestsASkillOnceByItsCanonicalName() {
+        SkillSuggester suggester = new SkillSuggester();
+        // "JS" is an alias of JavaScript
+        List<String> suggestions = suggester.suggest("js", 10);
+        assertEquals("JavaScript", suggestions.get(0));
+        assertEquals(suggestions.indexOf("JavaScript"), suggestions.lastIndexOf("JavaScript"));
+    }
+
+    @Test
+    void picksUpSkillsInternedLater() {
+        SkillSuggester suggester = new SkillSuggester();
+        SkillDictionary.intern("Sugtest Interned Later");
+        assertEquals(Collections.singletonList("Sugtest Interned Later"), suggester.suggest("sugtest interned", 5));
+    }
+
+    @Test
+    void addedNamesAreSuggestedButNotInterned() {
+        int size = SkillDictionary.size();
+        SkillSuggester suggester = new SkillSuggester();
+        suggester.addNames(Arrays.asList("Sugtest Gamma/Sugtest Delta", "Technical", "Java"));
+
+        assertEquals(size, SkillDictionary.size());
+        assertEquals(-1, SkillDictionary.lookup("Sugtest Gamma/Sugtest Delta"));
+        assertEquals(Collections.singletonList("Sugtest Gamma"), suggester.suggest("sugtest gam", 5));
+        assertEquals(Collections.singletonList("Sugtest Delta"), suggester.suggest("sugtest del", 5));
+        assertEquals("Java", suggester.suggest("java", 5).get(0));
+    }
+
+    // At startup the suggester reads the snapshot's skill names while the catalog loads on another thread:
+    // a composite requirement must be split the same whichever of the two comes first
+    @Test
+    void catalogScoringDoesNotDependOnWhenTheSuggesterIndexesNames() throws IOException {
+        int suggesterFirst = scoreWithSuggesterFirst("Sugtest Alpha", "Sugtest Beta", true);
+        int catalogFirst = scoreWithSuggesterFirst("Sugtest Gimel", "Sugtest Dalet", false);
+        assertEquals(100, catalogFirst);
+        assertEquals(catalogFirst, suggesterFirst);
+    }
+
+    private int scoreWithSuggesterFirst(String first, String second, boolean suggesterFirst) throws IOException {
+        String composite = first + "/" + second;
+        Path catalogFile = dir.resolve(first + ".txt");
+        Files.write(catalogFile, Collections.singletonList("Engineer: " + composite + "|Technical|1|5"));
+        SkillSuggester suggester = new SkillSuggester();
+
+        CareerPath path;
+        if (suggesterFirst) {
+            suggester.addNames(Collections.singletonList(composite));
+            path = CareerPathLoader.readCareerPaths(catalogFile, true).get("Engineer");
+        } else {
+            path = CareerPathLoader.readCareerPaths(catalogFile, true).get("Engineer");
+            suggester.addNames(Collections.singletonList(composite));
+        }
+
+        assertEquals(2, path.getSkillCount());
+        UserProfile user = TestUsers.profile("ada1", null, first, "Technical", 6, second, "Technical", 6);
+        return path.score(user);
+    }
+}
@@ -0,0 +1,49 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Profiles built and compared the same way across tests
+final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    // Skills given as name, type, proficiency triples
+    static UserProfile profile(String userId, String field, Object... skills) {
+        UserProfile user = new UserProfile("Name of " + userId, "secret-" + userId, userId);
+        user.setField(field);
+        for (int i = 0; i < skills.length; i += 3) {
+            user.addSkill((String) skills[i], (String) skills[i + 1], (Integer) skills[i + 2]);
+        }
+        return user;
+    }
+
+    static Map<String, UserProfile> users(UserProfile... profiles) {
+        Map<String, UserProfile> users = new HashMap<>();
+        for (UserProfile user : profiles) {
+            users.put(user.getUserId(), user);
+        }
+        return users;
+    }
+
+    // Everything a profile holds, in a form that compares regardless of skill order
+    static String describe(UserProfile user) {
+        List<String> skills = new ArrayList<>();
+        for (Skill skill : user.getSkills()) {
+            skills.add(skill.getName() + "|" + skill.getType() + "|" + skill.getProficiency());
+        }
+        Collections.sort(skills);
+        return user.getUserId() + "," + user.getFullName() + "," + user.getPassword() + "," + user.getField() + skills;
+    }
+
+    static List<String> describe(Map<String, UserProfile> users) {
+        List<String> described = new ArrayList<>();
+        for (UserProfile user : users.values()) {
+            described.add(describe(user));
+        }
+        Collections.sort(described);
+        return described;
+    }
+}
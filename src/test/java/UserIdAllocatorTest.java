@@ -0,0 +1,116 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserIdAllocatorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void numberingContinuesAfterARestart() throws IOException {
+        Path file = dir.resolve("user_data.ids");
+        Set<String> ids = new HashSet<>();
+        try (UserIdAllocator allocator = UserIdAllocator.open(file)) {
+            assertEquals("AAdaLovelace1000", allocator.allocate("Ada Lovelace", id -> false));
+            for (int i = 0; i < 99; i++) {
+                ids.add(allocator.allocate("Ada Lovelace", id -> false));
+            }
+        }
+        try (UserIdAllocator allocator = UserIdAllocator.open(file)) {
+            // The rest of the reserved block is skipped, never handed out again
+            assertEquals("AAdaLovelace1128", allocator.allocate("Ada  Lovelace", id -> false));
+            for (int i = 0; i < 99; i++) {
+                assertTrue(ids.add(allocator.allocate("Ada Lovelace", id -> false)));
+            }
+            assertEquals("BBob1000", allocator.allocate("Bob", id -> false));
+        }
+    }
+
+    @Test
+    void takenIdsAreSkipped() throws IOException {
+        try (UserIdAllocator allocator = UserIdAllocator.open(dir.resolve("user_data.ids"))) {
+            Set<String> taken = new HashSet<>(List.of("BBob1000", "BBob1001", "BBob1003"));
+            assertEquals("BBob1002", allocator.allocate("Bob", taken::contains));
+            assertEquals("BBob1004", allocator.allocate("Bob", taken::contains));
+        }
+    }
+
+    @Test
+    void aTornLastLineIsCutOff() throws IOException {
+        Path file = dir.resolve("user_data.ids");
+        // As if the process died while appending the reservation for Bob
+        Files.write(file, "AdaLovelace\t1064\nBob\t10".getBytes(StandardCharsets.UTF_8));
+        try (UserIdAllocator allocator = UserIdAllocator.open(file)) {
+            assertEquals("AAdaLovelace1064", allocator.allocate("Ada Lovelace", id -> false));
+            assertEquals("BBob1000", allocator.allocate("Bob", id -> false));
+        }
+        assertEquals(List.of("AdaLovelace\t1064", "AdaLovelace\t1128", "Bob\t1064"),
+                Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void aLongFileIsRewrittenWithOneLinePerName() throws IOException {
+        Path file = dir.resolve("user_data.ids");
+        List<String> lines = new ArrayList<>();
+        for (int block = 1; block <= 2000; block++) {
+            lines.add("AdaLovelace\t" + (1000 + 64 * block));
+        }
+        lines.add("Bob\t1064");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+
+        try (UserIdAllocator allocator = UserIdAllocator.open(file)) {
+            assertEquals(2, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+            assertEquals("AAdaLovelace129000", allocator.allocate("Ada Lovelace", id -> false));
+            assertEquals("BBob1064", allocator.allocate("Bob", id -> false));
+        }
+        assertTrue(Files.notExists(dir.resolve("user_data.ids.tmp")));
+    }
+
+    @Test
+    void concurrentAllocationsForOneNameNeverRepeat() throws Exception {
+        Path file = dir.resolve("user_data.ids");
+        int threads = 8;
+        int perThread = 500;
+        List<Future<List<String>>> results = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (UserIdAllocator allocator = UserIdAllocator.open(file)) {
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    List<String> ids = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(allocator.allocate(i % 2 == 0 ? "Ada Lovelace" : "Bob", id -> false));
+                    }
+                    return ids;
+                }));
+            }
+            Set<String> ids = new HashSet<>();
+            for (Future<List<String>> result : results) {
+                ids.addAll(result.get());
+            }
+            assertEquals(threads * perThread, ids.size());
+        } finally {
+            pool.shutdown();
+        }
+
+        // Nor after a restart
+        try (UserIdAllocator allocator = UserIdAllocator.open(file)) {
+            String next = allocator.allocate("Ada Lovelace", id -> false);
+            assertTrue(Long.parseLong(next.substring("AAdaLovelace".length())) >= 1000 + threads * perThread / 2);
+        }
+    }
+}
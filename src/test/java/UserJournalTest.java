@@ -0,0 +1,120 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayAppliesEveryChangeInOrder() throws IOException {
+        Path file = dir.resolve("user_data.journal");
+        try (UserJournal journal = UserJournal.open(file)) {
+            journal.append(Arrays.asList(
+                    UserJournal.register(TestUsers.profile("ada1", null)),
+                    UserJournal.addSkill("ada1", "Java", "Technical", 8),
+                    UserJournal.addSkill("ada1", "Teamwork", "Soft", 6),
+                    UserJournal.setField("ada1", "Mathematics")));
+            journal.append(Arrays.asList(
+                    UserJournal.removeSkill("ada1", "Teamwork", "Soft"),
+                    UserJournal.setField("ada1", "Computer Science"),
+                    UserJournal.addSkill("nobody", "Java", "Technical", 3)));
+        }
+
+        Map<String, UserProfile> users = new HashMap<>();
+        assertEquals(Files.size(file), UserJournal.replay(file, users));
+        assertEquals(Collections.singleton("ada1"), users.keySet());
+        assertEquals(TestUsers.describe(TestUsers.profile("ada1", "Computer Science", "Java", "Technical", 8)),
+                TestUsers.describe(users.get("ada1")));
+    }
+
+    @Test
+    void replayStopsAtARecordWithABadChecksum() throws IOException {
+        Path file = dir.resolve("user_data.journal");
+        try (UserJournal journal = UserJournal.open(file)) {
+            journal.append(Collections.singletonList(UserJournal.register(TestUsers.profile("ada1", null))));
+            journal.append(Collections.singletonList(UserJournal.addSkill("ada1", "Java", "Technical", 8)));
+            journal.append(Collections.singletonList(UserJournal.addSkill("ada1", "SQL", "Technical", 5)));
+        }
+        // Record layout: length (int) | crc32 (int) | payload; flip the last payload byte of the second record
+        byte[] bytes = Files.readAllBytes(file);
+        int first = 8 + ByteBuffer.wrap(bytes).getInt(0);
+        int second = 8 + ByteBuffer.wrap(bytes).getInt(first);
+        bytes[first + second - 1] ^= 1;
+        Files.write(file, bytes);
+
+        Map<String, UserProfile> users = new HashMap<>();
+        assertEquals(first, UserJournal.replay(file, users));
+        assertEquals(0, users.get("ada1").getSkillCount());
+    }
+
+    @Test
+    void openCutsOffATornTailBeforeAppending() throws IOException {
+        Path file = dir.resolve("user_data.journal");
+        try (UserJournal journal = UserJournal.open(file)) {
+            journal.append(Arrays.asList(
+                    UserJournal.register(TestUsers.profile("ada1", null)),
+                    UserJournal.addSkill("ada1", "Java", "Technical", 8)));
+        }
+        long intact = Files.size(file);
+        try (UserJournal journal = UserJournal.open(file)) {
+            journal.append(Collections.singletonList(UserJournal.addSkill("ada1", "Python", "Technical", 7)));
+        }
+        // As if the process died while writing that record
+        Files.write(file, Arrays.copyOf(Files.readAllBytes(file), (int) intact + 11));
+
+        try (UserJournal journal = UserJournal.open(file)) {
+            assertEquals(intact, Files.size(file));
+            assertEquals(2, journal.getRecordCount());
+            journal.append(Collections.singletonList(UserJournal.setField("ada1", "Physics")));
+        }
+
+        Map<String, UserProfile> users = new HashMap<>();
+        UserJournal.replay(file, users);
+        UserProfile ada = users.get("ada1");
+        assertTrue(ada.hasSkill("Java", "Technical"));
+        assertFalse(ada.hasSkill("Python", "Technical"));
+        assertEquals("Physics", ada.getField());
+    }
+
+    @Test
+    void replayOverASnapshotLoadsOnlyTheProfilesItTouches() throws IOException {
+        Path snapshotFile = dir.resolve("user_data.bin");
+        UserRecordCodec.write(snapshotFile, TestUsers.users(TestUsers.profile("ada1", "CS", "Java", "Technical", 8),
+                TestUsers.profile("bob1", "Math", "Statistics", "Technical", 5)));
+        Path file = dir.resolve("user_data.journal");
+        try (UserJournal journal = UserJournal.open(file)) {
+            journal.append(Arrays.asList(
+                    UserJournal.addSkill("bob1", "Python", "Technical", 6),
+                    UserJournal.register(TestUsers.profile("cy1", null))));
+        }
+
+        try (UserSnapshot snapshot = UserSnapshot.open(snapshotFile)) {
+            Map<String, UserProfile> touched = new HashMap<>();
+            UserJournal.replay(file, touched, snapshot::load);
+            assertEquals(2, touched.size());
+            assertNull(touched.get("ada1"));
+            UserProfile bob = TestUsers.profile("bob1", "Math", "Statistics", "Technical", 5, "Python", "Technical", 6);
+            assertEquals(TestUsers.describe(bob), TestUsers.describe(touched.get("bob1")));
+
+            // The snapshot may already hold the journal's changes (crash after a write-back): nothing changes
+            Map<String, UserProfile> again = new HashMap<>(touched);
+            UserJournal.replay(file, again, snapshot::load);
+            assertEquals(TestUsers.describe(touched), TestUsers.describe(again));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserRecordCodecTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writeThenReadGivesTheSameProfiles() throws IOException {
+        Map<String, UserProfile> users = TestUsers.users(
+                TestUsers.profile("ada1", "Computer Science", "Java", "Technical", 8, "Teamwork", "Soft", 6),
+                TestUsers.profile("bob1", null),
+                TestUsers.profile("cy1", "Design", "Figma", "Technical", 10));
+        Path file = dir.resolve("users.bin");
+        UserRecordCodec.write(file, users);
+
+        Map<String, UserProfile> read = UserRecordCodec.read(file);
+        assertEquals(TestUsers.describe(users), TestUsers.describe(read));
+        assertNull(read.get("bob1").getField());
+    }
+
+    @Test
+    void mergeReplacesChangedProfilesAndKeepsTheRest() throws IOException {
+        UserProfile ada = TestUsers.profile("ada1", "CS", "Java", "Technical", 8);
+        UserProfile bob = TestUsers.profile("bob1", "Math", "Statistics", "Technical", 5);
+        UserProfile cy = TestUsers.profile("cy1", null);
+        Path base = dir.resolve("base.bin");
+        UserRecordCodec.write(base, TestUsers.users(ada, bob, cy));
+        UserProfile changed = TestUsers.profile("bob1", "Math", "Statistics", "Technical", 5, "Python", "Technical", 7);
+        UserProfile added = TestUsers.profile("dee1", "Design", "Leadership", "Soft", 9);
+
+        Path merged = dir.resolve("merged.bin");
+        try (UserSnapshot snapshot = UserSnapshot.open(base)) {
+            UserRecordCodec.merge(snapshot, Arrays.asList(changed, added), merged);
+        }
+
+        assertEquals(TestUsers.describe(TestUsers.users(ada, changed, cy, added)),
+                TestUsers.describe(UserRecordCodec.read(merged)));
+    }
+
+    @Test
+    void mergeKeepsOnlyTheLatestImportedRecordOfAUser() throws IOException {
+        Path base = dir.resolve("base.bin");
+        UserRecordCodec.write(base, TestUsers.users(
+                TestUsers.profile("ada1", "CS", "Java", "Technical", 8), TestUsers.profile("bob1", null)));
+        Path first = dir.resolve("import.0");
+        UserProfile eve = TestUsers.profile("eve1", "Ops", "Kubernetes", "Technical", 4);
+        UserRecordCodec.write(first, TestUsers.users(TestUsers.profile("bob1", "Old", "Go", "Technical", 3), eve));
+        Path second = dir.resolve("import.1");
+        UserProfile bob = TestUsers.profile("bob1", "New", "Rust", "Technical", 9, "Empathy", "Soft", 2);
+        UserRecordCodec.write(second, TestUsers.users(bob));
+        Map<String, Integer> latest = new HashMap<>();
+        latest.put("bob1", 1);
+        latest.put("eve1", 0);
+        // Changes not yet written back are merged as well
+        UserProfile ada = TestUsers.profile("ada1", "CS", "Java", "Technical", 8, "SQL", "Technical", 6);
+
+        Path merged = dir.resolve("merged.bin");
+        try (UserSnapshot snapshot = UserSnapshot.open(base);
+             UserSnapshot firstBatch = UserSnapshot.open(first);
+             UserSnapshot secondBatch = UserSnapshot.open(second)) {
+            UserRecordCodec.merge(snapshot, Collections.singletonList(ada),
+                    Arrays.asList(firstBatch, secondBatch), latest, merged);
+        }
+
+        assertEquals(TestUsers.describe(TestUsers.users(ada, bob, eve)),
+                TestUsers.describe(UserRecordCodec.read(merged)));
+    }
+
+    @Test
+    void newerMinorVersionIsReadAndNewerMajorVersionIsRejected() throws IOException {
+        Path file = dir.resolve("users.bin");
+        UserRecordCodec.write(file, TestUsers.users(TestUsers.profile("ada1", "CS", "Java", "Technical", 8)));
+
+        Path minor = withVersion(file, UserRecordCodec.FORMAT_VERSION + 1);
+        assertEquals("ada1", UserRecordCodec.read(minor).get("ada1").getUserId());
+
+        Path major = withVersion(file, (UserRecordCodec.FORMAT_VERSION & ~0xFF) + 0x100);
+        IOException e = assertThrows(IOException.class, () -> UserRecordCodec.read(major));
+        assertTrue(e.getMessage().contains("format version"));
+    }
+
+    // Copy of file with another format version; the version short follows the four byte magic
+    private Path withVersion(Path file, int version) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[4] = (byte) (version >> 8);
+        bytes[5] = (byte) version;
+        Path copy = dir.resolve("version-" + version + ".bin");
+        Files.write(copy, bytes);
+        return copy;
+    }
+}
@@ -0,0 +1,55 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void findsEachProfileThroughTheIndex() throws IOException {
+        Map<String, UserProfile> users = TestUsers.users();
+        for (int i = 0; i < 500; i++) {
+            UserProfile user = TestUsers.profile("user" + i, "Field " + i % 7,
+                    "Skill " + i % 13, "Technical", i % 10 + 1);
+            users.put(user.getUserId(), user);
+        }
+        Path file = dir.resolve("user_data.bin");
+        UserRecordCodec.write(file, users);
+
+        try (UserSnapshot snapshot = UserSnapshot.open(file)) {
+            assertTrue(snapshot.hasIndex());
+            assertEquals(500, snapshot.getUserCount());
+            for (UserProfile user : users.values()) {
+                assertTrue(snapshot.contains(user.getUserId()));
+                assertEquals(TestUsers.describe(user), TestUsers.describe(snapshot.load(user.getUserId())));
+            }
+            assertFalse(snapshot.contains("user500"));
+            assertNull(snapshot.load("user500"));
+
+            Set<String> visited = new HashSet<>();
+            snapshot.forEachRecord((userId, body) -> assertTrue(visited.add(userId)));
+            assertEquals(users.keySet(), visited);
+        }
+    }
+
+    @Test
+    void missingFileOpensEmpty() throws IOException {
+        try (UserSnapshot snapshot = UserSnapshot.open(dir.resolve("user_data.bin"))) {
+            assertEquals(0, snapshot.getUserCount());
+            assertNull(snapshot.load("ada1"));
+            assertTrue(snapshot.getStrings().isEmpty());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs against UserPersistence in the working directory (build/test-work), with more users than its cache holds
+class UserStoreConcurrencyTest {
+
+    private static final int USERS = 3000;
+
+    private final UserStore store = new PersistentUserStore();
+
+    @BeforeEach
+    void population() {
+        Map<String, UserProfile> users = new HashMap<>();
+        for (int i = 0; i < USERS; i++) {
+            UserProfile user = TestUsers.profile("crowd" + i, "Design", "Teamwork", "Soft", 5);
+            users.put(user.getUserId(), user);
+        }
+        UserPersistence.saveUsers(users);
+    }
+
+    @AfterEach
+    void emptyStore() {
+        UserPersistence.saveUsers(new HashMap<>());
+    }
+
+    @Test
+    void aHeldProfileIsFoundAgainAfterEviction() {
+        UserProfile held = store.find("crowd0");
+        assertNotNull(held);
+        for (int i = 1; i < USERS; i++) {
+            assertNotNull(store.find("crowd" + i));
+        }
+        assertSame(held, store.find("crowd0"));
+    }
+
+    @Test
+    void twoWritersOnOneUserLoseNothingAcrossEviction() throws Exception {
+        int rounds = 4;
+        int perRound = 100;
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        // One writer keeps the profile it found first, the other looks the user up again for every change
+        UserProfile held = store.find("crowd0");
+        try {
+            for (int round = 0; round < rounds; round++) {
+                int first = round * perRound;
+                Future<?> holding = pool.submit(() -> {
+                    for (int i = first; i < first + perRound; i++) {
+                        assertTrue(store.addSkill(held, "HeldSkill" + i, "Technical", 6));
+                    }
+                });
+                Future<?> finding = pool.submit(() -> {
+                    for (int i = first; i < first + perRound; i++) {
+                        UserProfile user = store.find("crowd0");
+                        assertSame(held, user);
+                        assertTrue(store.addSkill(user, "FoundSkill" + i, "Technical", 7));
+                    }
+                });
+                holding.get();
+                finding.get();
+
+                // Enough changes to other users for a write-back, after which crowd0 is clean again ...
+                for (int i = 1; i < USERS; i++) {
+                    store.setField(store.find("crowd" + i), "Round " + round);
+                }
+                UserPersistence.loadUsers(); // waits for the write-back
+                // ... and then drops out of the cache under more users than it holds
+                for (int i = 1; i < USERS; i++) {
+                    assertNotNull(store.find("crowd" + i));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(2 * rounds * perRound + 1, held.getSkillCount());
+        assertSame(held, store.find("crowd0"));
+        // And every change reached the journal and snapshot
+        UserProfile stored = UserPersistence.loadUsers().get("crowd0");
+        assertEquals(TestUsers.describe(held), TestUsers.describe(stored));
+    }
+
+    @Test
+    void statsAreBuiltInTheBackgroundWhileUsersChange() throws Exception {
+        // The first call only starts the pass over every user; changes made meanwhile still count
+        store.stats();
+        for (int i = 0; i < USERS; i += 2) {
+            store.addSkill(store.find("crowd" + i), "StatsSkill", "Technical", 4);
+        }
+        PopulationStats stats = readyStats();
+        assertEquals(USERS, stats.getUserCount());
+        assertEquals(USERS / 2, usersWith(stats, "StatsSkill"));
+
+        store.addSkill(store.find("crowd1"), "StatsSkill", "Technical", 4);
+        assertEquals(USERS / 2 + 1, usersWith(stats, "StatsSkill"));
+        // A bulk save starts them over
+        UserPersistence.saveUsers(new HashMap<>());
+        assertEquals(0, readyStats().getUserCount());
+    }
+
+    private PopulationStats readyStats() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        PopulationStats stats;
+        while ((stats = store.stats()) == null) {
+            assertTrue(System.nanoTime() < deadline, "Stats never became ready");
+            Thread.sleep(10);
+        }
+        return stats;
+    }
+
+    private static long usersWith(PopulationStats stats, String skill) {
+        for (PopulationStats.SkillDistribution distribution : stats.getSkillDistributions(Integer.MAX_VALUE)) {
+            if (distribution.getName().equals(skill)) {
+                return distribution.getUserCount();
+            }
+        }
+        return 0;
+    }
+}